@@ -0,0 +1,56 @@
+package arlob.iqfocus;
+
+import arlob.iqfocus.solver.Engine;
+import arlob.iqfocus.solver.SolutionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+
+/**
+ * Solving every challenge in {@link Solution#SOLUTIONS} once per invocation,
+ * either by lookup in the prebuilt {@link SolutionTable} or by searching with
+ * one of the engines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolutionBenchmark {
+    @Param({ "TABLE", "DANCING_LINKS", "BITSET", "PARALLEL" })
+    public String engine;
+
+    private Engine solver;
+
+    @Setup
+    public void setup() {
+        if (engine.equals("TABLE")) {
+            SolutionTable.getInstance();
+        } else {
+            solver = Engine.valueOf(engine);
+        }
+    }
+
+    @Benchmark
+    public void allChallenges(Blackhole bh) {
+        for (Solution solution : SOLUTIONS) {
+            bh.consume(solver == null
+                    ? FocusGame.getSolution(solution.objective)
+                    : FocusGame.getSolution(solution.objective, solver));
+        }
+    }
+}
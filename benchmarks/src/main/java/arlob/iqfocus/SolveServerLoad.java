@@ -0,0 +1,89 @@
+package arlob.iqfocus;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+
+/**
+ * Load test for {@link SolveServer}. Starts a local instance, then runs a
+ * number of concurrent clients on virtual threads, each sending solve
+ * requests for the {@link Solution#SOLUTIONS} challenges in turn, and
+ * reports requests per second and latency percentiles.
+ * <p>
+ * Usage: {@code SolveServerLoad [clients] [requests per client]}, by default
+ * 1000 clients of 20 requests each.
+ */
+public class SolveServerLoad {
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        try (SolveServer server = new SolveServer(new InetSocketAddress("localhost", 0));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.start();
+
+            HttpClient client = HttpClient.newBuilder().executor(executor).build();
+            String base = "http://localhost:" + server.getPort() + "/solve?challenge=";
+            AtomicInteger failures = new AtomicInteger();
+
+            // Warm up the solution table and the JIT before timing
+            for (Solution solution : SOLUTIONS) {
+                client.send(HttpRequest.newBuilder(URI.create(base + solution.objective)).build(),
+                        HttpResponse.BodyHandlers.ofString());
+            }
+
+            List<Future<long[]>> workers = new ArrayList<>();
+            long started = System.nanoTime();
+
+            for (int c = 0; c < clients; c++) {
+                int offset = c;
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[requests];
+
+                    for (int r = 0; r < requests; r++) {
+                        Solution solution = SOLUTIONS[(offset + r) % SOLUTIONS.length];
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + solution.objective)).build();
+                        long sent = System.nanoTime();
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        latencies[r] = System.nanoTime() - sent;
+
+                        if (response.statusCode() != 200 || !solution.placements.contains(response.body())) {
+                            failures.incrementAndGet();
+                        }
+                    }
+
+                    return latencies;
+                }));
+            }
+
+            long[] all = new long[clients * requests];
+            for (int c = 0; c < clients; c++) {
+                System.arraycopy(workers.get(c).get(), 0, all, c * requests, requests);
+            }
+
+            long nanos = System.nanoTime() - started;
+            Arrays.sort(all);
+
+            System.out.printf("%d clients x %d requests in %.2f s: %.0f req/s, p50=%.2f ms p99=%.2f ms max=%.2f ms, %d failures, %d computations%n",
+                    clients, requests, nanos / 1e9, all.length * 1e9 / nanos,
+                    percentile(all, 50) / 1e6, percentile(all, 99) / 1e6, all[all.length - 1] / 1e6,
+                    failures.get(), server.getComputations());
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+}
@@ -0,0 +1,77 @@
+package arlob.iqfocus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static arlob.iqfocus.TestUtility.*;
+
+/**
+ * Piece and placement string validation. Each invocation checks every
+ * fixture once: the pieces and prefixes of the known solutions, along with
+ * the malformed, off-board and overlapping fixtures from the tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private String[] pieces;
+    private String[] placements;
+
+    @Setup
+    public void setup() {
+        List<String> pieces = new ArrayList<>();
+        List<String> placements = new ArrayList<>();
+
+        for (Solution solution : SOLUTIONS) {
+            for (int i = 0; i < solution.placement.length(); i += 4) {
+                pieces.add(solution.placement.substring(i, i + 4));
+                placements.add(solution.placement.substring(0, i + 4));
+            }
+        }
+
+        for (String[] bad : new String[][] { BAD_PIECES, OFF_BOARD_1, OFF_BOARD_2 }) {
+            for (String piece : bad) {
+                pieces.add(piece);
+                placements.add(SOLUTIONS[0].placement.substring(0, 8) + piece);
+            }
+        }
+
+        for (String overlap : OVERLAP) {
+            placements.add(overlap);
+        }
+
+        this.pieces = pieces.toArray(new String[0]);
+        this.placements = placements.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void piecePlacementWellFormed(Blackhole bh) {
+        for (String piece : pieces) {
+            bh.consume(FocusGame.isPiecePlacementWellFormed(piece));
+        }
+    }
+
+    @Benchmark
+    public void placementStringValid(Blackhole bh) {
+        for (String placement : placements) {
+            bh.consume(FocusGame.isPlacementStringValid(placement));
+        }
+    }
+}
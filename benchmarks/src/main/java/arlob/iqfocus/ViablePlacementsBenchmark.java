@@ -0,0 +1,54 @@
+package arlob.iqfocus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static arlob.iqfocus.TestUtility.*;
+
+/**
+ * Viable placement lookups. Each invocation queries every fixture of one of
+ * the test sets once: boards missing their last piece, queries around the
+ * centre and sides, and positions from real games.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViablePlacementsBenchmark {
+    @Param({ "LAST", "CENTRE", "SIDES", "REAL" })
+    public String fixtures;
+
+    private ViablePlacement[] queries;
+
+    @Setup
+    public void setup() {
+        queries = switch (fixtures) {
+            case "LAST" -> VP_LAST;
+            case "CENTRE" -> VP_CENTRE;
+            case "SIDES" -> VP_SIDES;
+            case "REAL" -> VP_REAL;
+            default -> throw new IllegalArgumentException("Unknown fixtures: " + fixtures);
+        };
+    }
+
+    @Benchmark
+    public void viablePiecePlacements(Blackhole bh) {
+        for (ViablePlacement query : queries) {
+            bh.consume(FocusGame.getViablePiecePlacements(query.start, query.objective, query.xLoc, query.yLoc));
+        }
+    }
+}
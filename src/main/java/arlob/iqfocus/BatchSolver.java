@@ -0,0 +1,349 @@
+package arlob.iqfocus;
+
+import arlob.iqfocus.solver.Engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves a stream of challenges without the GUI.
+ * <p>
+ * Challenges are read one per line and solved on a pool of worker threads.
+ * Each result is written as {@code challenge<TAB>solution}, with an empty
+ * solution if the challenge has none or is malformed. Results are written as
+ * they complete, or in input order through a reorder buffer. The number of
+ * challenges in flight is bounded and latencies are kept in a fixed-size
+ * histogram, so input of any length streams through in constant memory.
+ * <p>
+ * Usage: {@code BatchSolver [--threads n] [--ordered] [--engine name] [file]}.
+ * Without a file, challenges are read from standard input. Without an engine,
+ * solutions are looked up in the solution table. A summary of throughput and
+ * latency is printed to standard error at the end.
+ */
+public class BatchSolver {
+    private static final int IN_FLIGHT_PER_THREAD = 64;
+
+    /* Latency histogram: 16 linear sub-buckets per power of two, exact below 32 ns */
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+
+    static int bucket(long nanos) {
+        if (nanos < SUB) {
+            return (int) Math.max(0, nanos);
+        }
+
+        int exp = 63 - Long.numberOfLeadingZeros(nanos);
+        return (exp - SUB_BITS + 1) * SUB + (int) ((nanos >>> (exp - SUB_BITS)) & (SUB - 1));
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB) {
+            return bucket;
+        }
+
+        int shift = bucket / SUB - 1;
+        return ((long) (SUB + bucket % SUB) << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Throughput and latency of a batch.
+     */
+    public static final class Summary {
+        private final long[] histogram;
+        private final long count;
+        private final long max;
+        private final long invalid;
+        private final long nanos;
+
+        Summary(long[] histogram, long count, long max, long invalid, long nanos) {
+            this.histogram = histogram.clone();
+            this.count = count;
+            this.max = max;
+            this.invalid = invalid;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return The number of challenges read.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The number of malformed challenges.
+         */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        /**
+         * @return The wall time of the batch, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return Challenges solved per second.
+         */
+        public double getThroughput() {
+            return nanos == 0 ? 0 : count * 1e9 / nanos;
+        }
+
+        /**
+         * @param p A percentile from 0 to 100.
+         * @return The solve time of that percentile, in nanoseconds, rounded up
+         * by at most 1/16 and exact for the maximum, or 0 for an empty batch.
+         */
+        public long getLatency(double p) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, Math.min(count, (long) Math.ceil(p / 100 * count)));
+
+            for (int b = 0; b < BUCKETS; b++) {
+                rank -= histogram[b];
+                if (rank <= 0) {
+                    return Math.min(upperBound(b), max);
+                }
+            }
+
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d challenges (%d invalid) in %.3f s, %.0f/s, latency us p50=%.1f p90=%.1f p99=%.1f max=%.1f",
+                    getCount(), invalid, nanos / 1e9, getThroughput(),
+                    getLatency(50) / 1e3, getLatency(90) / 1e3, getLatency(99) / 1e3, getLatency(100) / 1e3);
+        }
+    }
+
+    private final int threads;
+    private final boolean ordered;
+    private final Engine engine;
+
+    /**
+     * @param threads The number of worker threads.
+     * @param ordered If true, write results in input order.
+     * @param engine  The engine to search with, or null to use the solution table.
+     */
+    public BatchSolver(int threads, boolean ordered, Engine engine) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread, got " + threads);
+        }
+
+        this.threads = threads;
+        this.ordered = ordered;
+        this.engine = engine;
+    }
+
+    /**
+     * Solve every challenge in the input.
+     *
+     * @param in  Challenges, one per line. Blank lines are skipped.
+     * @param out Where to write the results. Flushed at the end.
+     * @return The batch summary.
+     */
+    public Summary run(Reader in, Writer out) throws IOException {
+        Semaphore inFlight = new Semaphore(threads * IN_FLIGHT_PER_THREAD);
+        Output output = new Output(out, inFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        long started = System.nanoTime();
+        long seq = 0;
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String challenge = line.trim();
+
+                if (challenge.isEmpty()) continue;
+
+                inFlight.acquire();
+                long n = seq++;
+
+                executor.execute(() -> output.write(n, solve(challenge)));
+            }
+
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while solving", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (output.failure != null) {
+            throw output.failure;
+        }
+
+        out.flush();
+
+        return new Summary(output.histogram, output.count, output.max, output.invalid, System.nanoTime() - started);
+    }
+
+    private Result solve(String challenge) {
+        long started = System.nanoTime();
+        String solution;
+        boolean valid = true;
+
+        try {
+            solution = engine == null ? FocusGame.getSolution(challenge) : FocusGame.getSolution(challenge, engine);
+        } catch (RuntimeException e) {
+            solution = "";
+            valid = false;
+        }
+
+        return new Result(challenge, solution, valid, System.nanoTime() - started);
+    }
+
+    private static final class Result {
+        final String challenge;
+        final String solution;
+        final boolean valid;
+        final long nanos;
+
+        Result(String challenge, String solution, boolean valid, long nanos) {
+            this.challenge = challenge;
+            this.solution = solution;
+            this.valid = valid;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Collects results from the workers, writing them in completion order or
+     * holding them back until every earlier result has been written. A
+     * challenge stops counting as in flight once its result is written.
+     */
+    private final class Output {
+        private final Writer out;
+        private final Semaphore inFlight;
+        private final Map<Long, Result> pending = new HashMap<>();
+        private long next;
+        private final long[] histogram = new long[BUCKETS];
+        private long count;
+        private long max;
+        private long invalid;
+        private IOException failure;
+
+        Output(Writer out, Semaphore inFlight) {
+            this.out = out;
+            this.inFlight = inFlight;
+        }
+
+        synchronized void write(long seq, Result result) {
+            if (!ordered) {
+                emit(result);
+                return;
+            }
+
+            pending.put(seq, result);
+
+            for (Result r; (r = pending.remove(next)) != null; next++) {
+                emit(r);
+            }
+        }
+
+        private void emit(Result result) {
+            inFlight.release();
+
+            histogram[bucket(result.nanos)]++;
+            count++;
+            max = Math.max(max, result.nanos);
+
+            if (!result.valid) {
+                invalid++;
+            }
+
+            if (failure != null) {
+                return;
+            }
+
+            try {
+                out.write(result.challenge);
+                out.write('\t');
+                out.write(result.solution);
+                out.write('\n');
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+
+        return args[i];
+    }
+
+    private static Engine engine(String name) {
+        try {
+            return Engine.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean ordered = false;
+        Engine engine = null;
+        String file = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(value(args, ++i));
+                    case "--ordered" -> ordered = true;
+                    case "--engine" -> engine = engine(value(args, ++i));
+                    default -> {
+                        if (args[i].startsWith("--") || file != null) {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                        file = args[i];
+                    }
+                }
+            }
+
+            if (threads < 1) {
+                throw new IllegalArgumentException("Need at least one thread, got " + threads);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: BatchSolver [--threads n] [--ordered] [--engine name] [file]");
+            System.err.println("Engines: " + Arrays.toString(Engine.values()).toLowerCase());
+            System.exit(2);
+        }
+
+        Reader in = file == null
+                ? new InputStreamReader(System.in, StandardCharsets.US_ASCII)
+                : new FileReader(file, StandardCharsets.US_ASCII);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16);
+
+        try (in) {
+            System.err.println(new BatchSolver(threads, ordered, engine).run(in, out));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package arlob.iqfocus;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.solver.BitsetSolver;
+import arlob.iqfocus.solver.SolutionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates challenges which have exactly one solution.
+ * <p>
+ * Candidates are drawn uniformly from the 4^9 possible challenges and kept if
+ * the {@link SolutionTable} lists exactly one solution for them. Only a few
+ * thousand challenges have a unique solution, so a batch walks a random
+ * permutation of all challenges and may return fewer than were asked for once
+ * it runs out.
+ */
+public class ChallengeGenerator {
+    private static final int CHALLENGES = 1 << 18;
+
+    /**
+     * How hard a challenge is, measured by the number of search nodes the
+     * bitset engine expands to prove its solution unique.
+     */
+    public enum Difficulty {
+        EASY(0, 20),
+        MEDIUM(20, 50),
+        HARD(50, Long.MAX_VALUE);
+
+        private final long minNodes;
+        private final long maxNodes;
+
+        Difficulty(long minNodes, long maxNodes) {
+            this.minNodes = minNodes;
+            this.maxNodes = maxNodes;
+        }
+
+        public static Difficulty of(long nodes) {
+            for (Difficulty difficulty : values()) {
+                if (nodes >= difficulty.minNodes && nodes < difficulty.maxNodes) {
+                    return difficulty;
+                }
+            }
+
+            return HARD;
+        }
+    }
+
+    private final SplittableRandom random;
+    private final BitsetSolver solver = new BitsetSolver();
+
+    /* Challenge codes for next(), shuffled a prefix at a time as they are drawn */
+    private int[] deck;
+
+    public ChallengeGenerator() {
+        this(new SplittableRandom());
+    }
+
+    public ChallengeGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private ChallengeGenerator(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Generate a single challenge on the calling thread.
+     * <p>
+     * Challenges are drawn without replacement, so each call checks every
+     * challenge at most once.
+     *
+     * @param difficulty The difficulty wanted, or null for any.
+     * @return A challenge with a unique solution, and that solution, or null
+     * if no challenge of the difficulty exists.
+     */
+    public Solution next(Difficulty difficulty) {
+        return difficulty == null ? next(0, Long.MAX_VALUE) : next(difficulty.minNodes, difficulty.maxNodes);
+    }
+
+    /**
+     * @return A challenge whose uniqueness proof expands at least minNodes and
+     * fewer than maxNodes search nodes, or null if there is none.
+     */
+    synchronized Solution next(long minNodes, long maxNodes) {
+        if (deck == null) {
+            deck = new int[CHALLENGES];
+            for (int i = 0; i < CHALLENGES; i++) {
+                deck[i] = i;
+            }
+        }
+
+        /* Each pass shuffles as much of the deck as it draws, so draws are uniform without replacement */
+        for (int i = 0; i < CHALLENGES; i++) {
+            int j = i + random.nextInt(CHALLENGES - i);
+            int code = deck[j];
+            deck[j] = deck[i];
+            deck[i] = code;
+
+            Solution solution = check(solver, code, minNodes, maxNodes);
+
+            if (solution != null) {
+                return solution;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Generate distinct challenges in parallel.
+     *
+     * @param n           The number of challenges wanted.
+     * @param difficulty  The difficulty wanted, or null for any.
+     * @param parallelism The number of worker threads.
+     * @return Up to n distinct challenges, each with its unique solution. Fewer
+     * are returned only if no more challenges of the difficulty exist.
+     */
+    public List<Solution> generate(int n, Difficulty difficulty, int parallelism) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+
+        int[] order = shuffledCodes();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(n);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+
+        try {
+            List<Future<List<Solution>>> workers = new ArrayList<>();
+
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(executor.submit(() -> {
+                    BitsetSolver worker = new BitsetSolver();
+                    List<Solution> found = new ArrayList<>();
+
+                    while (remaining.get() > 0) {
+                        int index = next.getAndIncrement();
+
+                        if (index >= order.length) {
+                            break;
+                        }
+
+                        Solution solution = difficulty == null
+                                ? check(worker, order[index], 0, Long.MAX_VALUE)
+                                : check(worker, order[index], difficulty.minNodes, difficulty.maxNodes);
+
+                        if (solution != null && remaining.getAndDecrement() > 0) {
+                            found.add(solution);
+                        }
+                    }
+
+                    return found;
+                }));
+            }
+
+            List<Solution> solutions = new ArrayList<>(n);
+
+            for (Future<List<Solution>> worker : workers) {
+                solutions.addAll(worker.get());
+            }
+
+            return solutions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating challenges", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Challenge generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int[] shuffledCodes() {
+        int[] order = new int[CHALLENGES];
+
+        for (int i = 0; i < CHALLENGES; i++) {
+            order[i] = i;
+        }
+
+        synchronized (this) {
+            for (int i = CHALLENGES - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * @return The challenge with its solution if it has exactly one and its
+     * uniqueness proof takes a number of nodes in the band, otherwise null.
+     */
+    private static Solution check(BitsetSolver solver, int code, long minNodes, long maxNodes) {
+        CompiledChallenge challenge = CompiledChallenge.of(code);
+        SolutionTable table = SolutionTable.getInstance();
+
+        if (table.count(challenge) != 1) {
+            return null;
+        }
+
+        if (minNodes > 0 || maxNodes < Long.MAX_VALUE) {
+            solver.enumerate(challenge, new BoardState(), 2, null);
+
+            if (solver.getNodes() < minNodes || solver.getNodes() >= maxNodes) {
+                return null;
+            }
+        }
+
+        return new Solution(challenge.toString(), table.get(challenge, 0).toString());
+    }
+}
@@ -1,16 +1,20 @@
 package arlob.iqfocus;
 
-import arlob.iqfocus.classes.Location;
-import arlob.iqfocus.classes.Orientation;
-import arlob.iqfocus.classes.Piece;
-import arlob.iqfocus.classes.State;
-import javafx.util.Pair;
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
 import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.solver.BitsetSolver;
+import arlob.iqfocus.solver.Budget;
+import arlob.iqfocus.solver.Engine;
+import arlob.iqfocus.solver.SolveResult;
+import arlob.iqfocus.solver.SolverStats;
+import arlob.iqfocus.solver.SolutionTable;
 
-import java.util.Arrays;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
  
 
 /**
@@ -20,6 +24,8 @@ import java.util.Set;
  * (https://www.smartgames.eu/uk/one-player-games/iq-focus)
  */
 public class FocusGame {
+    private static final Engine DEFAULT_ENGINE = Engine.BITSET;
+
     /**
      * Determine whether a piece placement is well-formed according to the
      * following criteria:
@@ -33,19 +39,8 @@ public class FocusGame {
      * @return True if the piece placement is well-formed
      */
     static boolean isPiecePlacementWellFormed(String piecePlacement) {
-        if (piecePlacement.length() != 4) {
-            return false;
-        }
-        
-        char shape = piecePlacement.charAt(0);
-        char col = piecePlacement.charAt(1);
-        char row = piecePlacement.charAt(2);
-        char ori = piecePlacement.charAt(3);
-
-        return shape >= 'a' && shape <= 'j'
-                && col >= '0' && col <= '8'
-                && row >= '0' && row <= '4'
-                && ori >= '0' && ori <= '3';
+        return piecePlacement.length() == 4 && pieceShape(piecePlacement.charAt(0), piecePlacement.charAt(1),
+                piecePlacement.charAt(2), piecePlacement.charAt(3)) >= 0;
     }
 
     /**
@@ -58,24 +53,88 @@ public class FocusGame {
      * @return True if the placement is well-formed
      */
     public static boolean isPlacementStringWellFormed(String placement) {
-        int len = placement.length();
+        return isPlacementStringWellFormed(placement, 0, placement.length());
+    }
 
-        if (len == 0 || len > 40 || len % 4 != 0) {
+    /**
+     * Determine whether part of a character sequence is a well-formed
+     * placement string, without allocating.
+     *
+     * @param placement A sequence holding the placement
+     * @param offset    The index of the placement's first character
+     * @param length    The length of the placement
+     * @return True if the placement is well-formed
+     * @see #isPlacementStringWellFormed(String)
+     */
+    public static boolean isPlacementStringWellFormed(CharSequence placement, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, placement.length());
+
+        if (length == 0 || length > 40 || length % 4 != 0) {
             return false;
         }
 
-        Set<Character> shapes = new HashSet<>();
-        for (int i = 0; i < len; i += 4) {
-            String piece = placement.substring(i, i + 4);
+        int shapes = 0;
+        for (int i = offset; i < offset + length; i += 4) {
+            int shape = pieceShape(placement.charAt(i), placement.charAt(i + 1),
+                    placement.charAt(i + 2), placement.charAt(i + 3));
 
-            if (!isPiecePlacementWellFormed(piece) || !shapes.add(piece.charAt(0))) {
+            if (shape < 0 || (shapes & (1 << shape)) != 0) {
                 return false;
             }
+
+            shapes |= 1 << shape;
         }
-        
+
         return true;
     }
 
+    /**
+     * Determine whether part of an ASCII byte array is a well-formed
+     * placement string, without allocating.
+     *
+     * @param placement An array holding the placement
+     * @param offset    The index of the placement's first byte
+     * @param length    The length of the placement
+     * @return True if the placement is well-formed
+     * @see #isPlacementStringWellFormed(String)
+     */
+    public static boolean isPlacementStringWellFormed(byte[] placement, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, placement.length);
+
+        if (length == 0 || length > 40 || length % 4 != 0) {
+            return false;
+        }
+
+        int shapes = 0;
+        for (int i = offset; i < offset + length; i += 4) {
+            int shape = pieceShape((char) placement[i], (char) placement[i + 1],
+                    (char) placement[i + 2], (char) placement[i + 3]);
+
+            if (shape < 0 || (shapes & (1 << shape)) != 0) {
+                return false;
+            }
+
+            shapes |= 1 << shape;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The shape index 0 .. 9 of a well-formed piece placement, or -1
+     * if it is not well-formed.
+     */
+    private static int pieceShape(char shape, char col, char row, char ori) {
+        if (shape >= 'a' && shape <= 'j'
+                && col >= '0' && col <= '8'
+                && row >= '0' && row <= '4'
+                && ori >= '0' && ori <= '3') {
+            return shape - 'a';
+        }
+
+        return -1;
+    }
+
     /**
      * Determine whether a placement string is valid.
      *
@@ -90,33 +149,64 @@ public class FocusGame {
      * @return True if the placement sequence is valid
      */
     public static boolean isPlacementStringValid(String placement) {
-        if (!isPlacementStringWellFormed(placement))
+        return isPlacementStringValid(placement, 0, placement.length());
+    }
+
+    /**
+     * Determine whether part of a character sequence is a valid placement
+     * string, without allocating.
+     *
+     * @param placement A sequence holding the placement
+     * @param offset    The index of the placement's first character
+     * @param length    The length of the placement
+     * @return True if the placement is valid
+     * @see #isPlacementStringValid(String)
+     */
+    public static boolean isPlacementStringValid(CharSequence placement, int offset, int length) {
+        if (!isPlacementStringWellFormed(placement, offset, length)) {
             return false;
+        }
 
         long occupied = 0L;
-        final long FORBIDDEN = (1L << (4*9 + 0)) | (1L << (4*9 + 8));
+        for (int i = offset; i < offset + length; i += 4) {
+            int id = Placements.idOf(placement.charAt(i), placement.charAt(i + 1) - '0',
+                    placement.charAt(i + 2) - '0', placement.charAt(i + 3) - '0');
 
-        for (int i = 0; i < placement.length(); i += 4) {
-            Piece piece = new Piece(placement.substring(i, i + 4));
-            Location loc = piece.getLocation();
-
-            if (loc.X < 0 || loc.Y < 0 || loc.X + piece.getW() > 9 || loc.Y + piece.getH() > 5) {
+            if (id < 0 || (occupied & Placements.mask(id)) != 0) {
                 return false;
             }
 
-            for (int y = 0; y < piece.getH(); y++) {
-                for (int x = 0; x < piece.getW(); x++) {
-                    if (piece.getState(x, y) != State.EMPTY) {
-                        int pos = (loc.Y + y) * 9 + loc.X + x;
+            occupied |= Placements.mask(id);
+        }
+
+        return true;
+    }
+
+    /**
+     * Determine whether part of an ASCII byte array is a valid placement
+     * string, without allocating.
+     *
+     * @param placement An array holding the placement
+     * @param offset    The index of the placement's first byte
+     * @param length    The length of the placement
+     * @return True if the placement is valid
+     * @see #isPlacementStringValid(String)
+     */
+    public static boolean isPlacementStringValid(byte[] placement, int offset, int length) {
+        if (!isPlacementStringWellFormed(placement, offset, length)) {
+            return false;
+        }
 
-                        if ((FORBIDDEN & (1L << pos)) != 0 || (occupied & (1L << pos)) != 0) {
-                            return false;
-                        }
+        long occupied = 0L;
+        for (int i = offset; i < offset + length; i += 4) {
+            int id = Placements.idOf((char) placement[i], placement[i + 1] - '0',
+                    placement[i + 2] - '0', placement[i + 3] - '0');
 
-                        occupied |= (1L << pos);
-                    }
-                }
+            if (id < 0 || (occupied & Placements.mask(id)) != 0) {
+                return false;
             }
+
+            occupied |= Placements.mask(id);
         }
 
         return true;
@@ -156,53 +246,13 @@ public class FocusGame {
         // If target cell already covered, nothing new can cover it
         if (boardState.isCellOccupied(col, row)) return null;
 
+        CompiledChallenge compiled = CompiledChallenge.of(challenge);
+
         Set<String> viablePlacements = new HashSet<>();
 
-        for (char shape : boardState.getUnplacedShapes()) {
-            for (Orientation orientation : Orientation.values()) {
-                Piece piece = new Piece(shape, col, row, orientation);
-                int h = piece.getH(), w = piece.getW();
-
-                int minRow = Math.max(0, row - (h - 1));
-                int maxRow = Math.min(row, 5 - h);
-                int minCol = Math.max(0, col - (w - 1));
-                int maxCol = Math.min(col, 9 - w);
-
-                for (int i = minRow; i <= maxRow; i++) {
-                    for (int j = minCol; j <= maxCol; j++) {
-                        if ((j == 0 && i == 4) || (j == 8 && i == 4)) continue;
-
-                        boolean covers = false, valid = true;
-                        
-                        piece.setLocation(j, i);
-
-                        for (int y = 0; y < h && valid; y++) {
-                            for (int x = 0; x < w; x++) {
-                                State cell = piece.getState(x, y);
-                                if (cell == State.EMPTY) continue;
-
-                                int X = j + x, Y = i + y;
-
-                                covers |= (X == col && Y == row);
-
-                                if (boardState.isCellOccupied(X, Y) ||
-                                        (X == 0 && Y == 4) || (X == 8 && Y == 4)) {
-                                    valid = false; break;
-                                }
-
-                                if (X > 2 && X < 6 && Y > 0 && Y < 4) {
-                                    if (challenge.charAt((X - 3) + (Y - 1) * 3) != cell.toChar()) {
-                                        valid = false; break;
-                                    }
-                                }
-                            }
-                        }
-
-                        if (covers && valid) {
-                            viablePlacements.add(piece.toString());
-                        }
-                    }
-                }
+        for (int id : Placements.candidates(row * Placements.COLS + col)) {
+            if (boardState.canPlace(id) && compiled.admits(id)) {
+                viablePlacements.add(Placements.toString(id));
             }
         }
 
@@ -211,6 +261,9 @@ public class FocusGame {
 
     /**
      * Return the canonical encoding of the solution to a particular challenge.
+     * The answer is looked up in the {@link SolutionTable}. Unless
+     * {@link SolutionTable#preload()} has run, the first lookup blocks for a
+     * few hundred milliseconds while the table is built.
      *
      * A given challenge can only be solved with a single placement of pieces.
      *
@@ -226,75 +279,133 @@ public class FocusGame {
      * the challenge.
      */
     public static String getSolution(String challenge) {   
+        CompiledChallenge compiled = CompiledChallenge.of(challenge);
+        SolutionTable table = SolutionTable.getInstance();
+
+        if (table.count(compiled) == 0) {
+            return "";
+        }
+
+        return table.get(compiled, 0).toString();
+    }
+
+    /**
+     * Return the canonical encoding of the solution to a particular challenge,
+     * searching with the given engine.
+     *
+     * @param challenge A challenge string.
+     * @param engine The search engine to use.
+     * @return A placement string describing a canonical encoding of the solution to
+     * the challenge, or the empty string if there is none.
+     */
+    public static String getSolution(String challenge, Engine engine) {
         BoardState boardState = new BoardState();
         
-        String solution = findSolution("", challenge, boardState);
-        
-        if (solution != null) {
-            String pieces = "";
-
-            for (int i = 0; i < solution.length(); i += 4) {
-                String piece = solution.substring(i, i + 4);
-                char pieceType = piece.charAt(0);
-
-                if (pieceType == 'f' || pieceType == 'g') {
-                    char rotation = piece.charAt(3);
-                    if (rotation == '2') {
-                        piece = piece.substring(0, 3) + '0';
-                    } else if (rotation == '3') {
-                        piece = piece.substring(0, 3) + '1';
-                    }
-                }
-
-                pieces += piece;
-            }
-            
-            return pieces;
+        if (engine.solver().solve(CompiledChallenge.of(challenge), boardState)) {
+            return toCanonical(boardState);
         }
         
         return "";
     }
-    
+
     /**
-     * Recursive backtracking method to find a solution for the given challenge
-     * 
-     * @param placement Current placement string
-     * @param challenge The challenge string
-     * @return A valid placement string that solves the challenge, or null if no solution exists
+     * Search for a solution to a challenge which keeps the pieces already
+     * placed where they are, giving up once the budget ends.
+     *
+     * @param placement A placement string of the pieces already placed, possibly empty.
+     * @param challenge A challenge string.
+     * @param budget    The deadline and cancellation token for the search.
+     * @return The outcome, with the canonical solution if one was found and the
+     * statistics of the search up to the point it stopped.
      */
-    private static String findSolution(String placement, String challenge, BoardState boardState) {
-        if (placement.length() == 40) {
-            return placement;
+    public static SolveResult getSolution(String placement, String challenge, Budget budget) {
+        CompiledChallenge compiled = CompiledChallenge.of(challenge);
+        SolverStats stats = new SolverStats();
+
+        if (!placement.isEmpty() && !isPlacementStringValid(placement)) {
+            return new SolveResult(SolveResult.Status.NO_SOLUTION, "", stats);
         }
-        
-        List<Pair<Integer, Integer>> emptyCells = boardState.getEmptyCellsByPriority();
-    
-        for (Pair<Integer, Integer> cell : emptyCells) {
-            int col = cell.getKey();
-            int row = cell.getValue();
-                
-            if (!boardState.isCellOccupied(col, row)) {
-                Set<String> viablePlacements = getViablePiecePlacements(placement, challenge, col, row);
-                
-                if (viablePlacements != null) {
-                    for (String piecePlacement : viablePlacements) {
-                        BoardState newBoardState = boardState.copy();
-
-                        newBoardState.placePiece(piecePlacement);
-
-                        String newPlacement = placement + piecePlacement;
-                        String result = findSolution(newPlacement, challenge, newBoardState);
-                        
-                        if (result != null) {
-                            return result;
-                        }
-                    }
-                }
-                
-                return null;
+
+        BoardState boardState = new BoardState(placement);
+        BitsetSolver solver = new BitsetSolver();
+        solver.setStats(stats);
+
+        SolveResult.Status status = solver.solve(compiled, boardState, budget);
+
+        return new SolveResult(status, status == SolveResult.Status.SOLVED ? toCanonical(boardState) : "", stats);
+    }
+
+    /**
+     * Return the canonical encoding of a solution to a challenge which keeps
+     * the pieces already placed where they are.
+     *
+     * @param placement A placement string of the pieces already placed, possibly empty.
+     * @param challenge A challenge string.
+     * @return A placement string describing a canonical encoding of the full
+     * solution, or the empty string if the placement is invalid or cannot be completed.
+     */
+    public static String getSolution(String placement, String challenge) {
+        if (placement.isEmpty()) {
+            return getSolution(challenge);
+        }
+
+        if (!isPlacementStringValid(placement)) {
+            return "";
+        }
+
+        BoardState boardState = new BoardState(placement);
+
+        if (DEFAULT_ENGINE.solver().solve(CompiledChallenge.of(challenge), boardState)) {
+            return toCanonical(boardState);
+        }
+
+        return "";
+    }
+
+    /**
+     * Count the solutions to a challenge, stopping early once limit of them
+     * have been found. A challenge with a unique solution returns 1 for any
+     * limit of 2 or more. The count is read from the {@link SolutionTable},
+     * with the same one-time build cost as {@link #getSolution(String)}.
+     *
+     * @param challenge A challenge string.
+     * @param limit The maximum number of solutions to count.
+     * @return The number of distinct solutions, at most limit.
+     */
+    public static long countSolutions(String challenge, long limit) {
+        return forEachSolution(challenge, limit, null);
+    }
+
+    /**
+     * Pass the canonical encoding of each solution to a challenge to an
+     * action, stopping once limit of them have been reported. The solutions
+     * are read from the {@link SolutionTable} rather than searched for, with
+     * the same one-time build cost as {@link #getSolution(String)}.
+     *
+     * @param challenge A challenge string.
+     * @param limit The maximum number of solutions to report.
+     * @param action Called with each solution's placement string, or null.
+     * @return The number of solutions reported, at most limit.
+     */
+    public static long forEachSolution(String challenge, long limit, Consumer<String> action) {
+        CompiledChallenge compiled = CompiledChallenge.of(challenge);
+        SolutionTable table = SolutionTable.getInstance();
+        long count = Math.min(table.count(compiled), Math.max(limit, 0));
+
+        if (action != null) {
+            for (int k = 0; k < count; k++) {
+                action.accept(table.get(compiled, k).toString());
             }
         }
 
-        return null;
+        return count;
+    }
+
+    /**
+     * Encode a full board canonically: ordered by piece ID, and with the
+     * lowest orientation for pieces with rotational symmetry.
+     */
+    static String toCanonical(BoardState boardState) {
+        return Arrangement.of(boardState).canonical().toString();
     }
 }
@@ -0,0 +1,162 @@
+package arlob.iqfocus;
+
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
+import arlob.iqfocus.solver.SolutionTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Suggests the next piece to place for a partly solved challenge.
+ * <p>
+ * The solutions to the active challenge are enumerated once and kept, so
+ * later hints for the same game only compare the player's pieces against
+ * them. A placed piece is flagged only if it appears in none of the
+ * solutions, since no completion of the board can then keep it. The next
+ * piece comes from the solution sharing the most pieces with the board.
+ * Hints are computed on a single background thread.
+ */
+public class HintService implements AutoCloseable {
+    /**
+     * The result of a hint request.
+     */
+    public static final class Hint {
+        private final String placement;
+        private final Set<String> inconsistent;
+
+        Hint(String placement, Set<String> inconsistent) {
+            this.placement = placement;
+            this.inconsistent = inconsistent;
+        }
+
+        /**
+         * @return The next piece placement to make, taken from the solution
+         * closest to the board, or null if the board is already solved or the
+         * challenge has no solution.
+         */
+        public String getPlacement() {
+            return placement;
+        }
+
+        /**
+         * @return The placed pieces which appear in no solution to the
+         * challenge, and so must move whatever else is placed, with symmetric
+         * pieces in their lowest orientation.
+         */
+        public Set<String> getInconsistent() {
+            return inconsistent;
+        }
+
+        @Override
+        public String toString() {
+            return "Hint[" + placement + ", inconsistent=" + inconsistent + "]";
+        }
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hint-service");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private String objective;
+    private List<Arrangement> solutions;
+    private boolean[] inSome;
+
+    /**
+     * Compute a hint on the background thread.
+     *
+     * @param objective The active challenge string.
+     * @param placement The player's current placement string, possibly empty.
+     * @return The hint, once computed.
+     */
+    public CompletableFuture<Hint> hint(String objective, String placement) {
+        return CompletableFuture.supplyAsync(() -> getHint(objective, placement), executor);
+    }
+
+    /**
+     * Compute a hint on the calling thread.
+     *
+     * @see #hint(String, String)
+     */
+    public synchronized Hint getHint(String objective, String placement) {
+        if (!objective.equals(this.objective)) {
+            CompiledChallenge challenge = CompiledChallenge.of(objective);
+            SolutionTable table = SolutionTable.getInstance();
+            List<Arrangement> found = new ArrayList<>();
+            boolean[] used = new boolean[Placements.count()];
+
+            for (int k = 0; k < table.count(challenge); k++) {
+                Arrangement solution = table.get(challenge, k);
+                found.add(solution);
+                for (int shape = 0; shape < 10; shape++) {
+                    used[solution.get(shape)] = true;
+                }
+            }
+
+            this.objective = objective;
+            this.solutions = found;
+            this.inSome = used;
+        }
+
+        Arrangement placed = Arrangement.EMPTY;
+        Set<String> inconsistent = new HashSet<>();
+
+        for (int i = 0; i + 4 <= placement.length(); i += 4) {
+            int id = Placements.idOf(placement.substring(i, i + 4));
+
+            if (id < 0) {
+                inconsistent.add(placement.substring(i, i + 4));
+            } else {
+                placed = placed.with(Placements.canonical(id));
+            }
+        }
+
+        for (int shape = 0; shape < 10; shape++) {
+            int id = placed.get(shape);
+            if (id >= 0 && !inSome[id]) inconsistent.add(Placements.toString(id));
+        }
+
+        Arrangement best = null;
+        int bestOverlap = -1;
+
+        for (Arrangement solution : solutions) {
+            int overlap = 0;
+            for (int shape = 0; shape < 10; shape++) {
+                if (placed.contains(shape) && placed.get(shape) == solution.get(shape)) overlap++;
+            }
+
+            if (overlap > bestOverlap) {
+                best = solution;
+                bestOverlap = overlap;
+            }
+        }
+
+        if (best == null) {
+            return new Hint(null, Collections.emptySet());
+        }
+
+        String next = null;
+        for (int shape = 0; shape < 10; shape++) {
+            if (placed.get(shape) != best.get(shape)) {
+                next = Placements.toString(best.get(shape));
+                break;
+            }
+        }
+
+        return new Hint(next, inconsistent);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,149 @@
+package arlob.iqfocus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache of solutions in front of
+ * {@link FocusGame#getSolution(String, String)}, keyed on the challenge and the
+ * pieces already placed.
+ * <p>
+ * Keys are spread over independently locked segments, each evicting its least
+ * recently used entry once full, so concurrent callers rarely contend. Solving
+ * happens outside any lock; two threads missing on the same key at once may
+ * both solve it.
+ */
+public class SolutionCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SolutionCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param capacity The maximum number of entries held.
+     * @param segments The number of independently locked segments, rounded up
+     *                 to a power of two but no more than the capacity allows.
+     *                 The capacity is split exactly between them.
+     */
+    public SolutionCache(int capacity, int segments) {
+        if (capacity <= 0 || segments <= 0) {
+            throw new IllegalArgumentException("Invalid cache size: " + capacity + " in " + segments + " segments");
+        }
+
+        int n = segments == 1 ? 1 : Integer.highestOneBit(segments - 1) << 1;
+        n = Math.min(n, Integer.highestOneBit(capacity));
+
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            this.segments[i] = new Segment(capacity / n + (i < capacity % n ? 1 : 0));
+        }
+    }
+
+    /**
+     * @see FocusGame#getSolution(String)
+     */
+    public String getSolution(String challenge) {
+        return getSolution("", challenge);
+    }
+
+    /**
+     * @see FocusGame#getSolution(String, String)
+     */
+    public String getSolution(String placement, String challenge) {
+        String key = challenge + ':' + placement;
+        Segment segment = segments[spread(key.hashCode()) & (segments.length - 1)];
+
+        String solution;
+        synchronized (segment) {
+            solution = segment.get(key);
+        }
+
+        if (solution != null) {
+            hits.increment();
+            return solution;
+        }
+
+        misses.increment();
+        solution = FocusGame.getSolution(placement, challenge);
+
+        synchronized (segment) {
+            segment.put(key, solution);
+        }
+
+        return solution;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The number of entries currently held.
+     */
+    public int size() {
+        int size = 0;
+
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SolutionCache[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "]";
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("serial")
+    private final class Segment extends LinkedHashMap<String, String> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
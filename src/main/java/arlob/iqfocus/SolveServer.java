@@ -0,0 +1,223 @@
+package arlob.iqfocus;
+
+import arlob.iqfocus.solver.SolutionTable;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * An embeddable HTTP front end to the {@link FocusGame} API.
+ * <p>
+ * Every route takes GET requests with URL query parameters and answers in
+ * plain text:
+ * <ul>
+ * <li>{@code /solve?challenge=C[&placement=P]} - the canonical solution, or an
+ * empty body if there is none.</li>
+ * <li>{@code /validate?placement=P} - {@code true} or {@code false}.</li>
+ * <li>{@code /viable?challenge=C&col=X&row=Y[&placement=P]} - the viable
+ * placements, sorted and separated by spaces.</li>
+ * </ul>
+ * Malformed requests get status 400. Each request runs on its own virtual
+ * thread. Concurrent solve requests for the same challenge and placement share
+ * one computation, and solutions are kept in a {@link SolutionCache}.
+ */
+public class SolveServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final BiFunction<String, String, String> solver;
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder computations = new LongAdder();
+
+    /**
+     * Bind a server; it does not answer until {@link #start()}.
+     *
+     * @param address The address to listen on. Port 0 picks a free port.
+     */
+    public SolveServer(InetSocketAddress address) throws IOException {
+        this(address, new SolutionCache()::getSolution);
+    }
+
+    /**
+     * @param solver Given a placement and a challenge, returns the solution.
+     */
+    SolveServer(InetSocketAddress address, BiFunction<String, String, String> solver) throws IOException {
+        this.solver = solver;
+        this.server = HttpServer.create(address, 0);
+
+        server.setExecutor(executor);
+        server.createContext("/solve", exchange -> handle(exchange, this::solve));
+        server.createContext("/validate", exchange -> handle(exchange, this::validate));
+        server.createContext("/viable", exchange -> handle(exchange, this::viable));
+    }
+
+    /**
+     * Start answering requests, building the solution table in the background
+     * so that the first solve does not pay for it.
+     */
+    public void start() {
+        SolutionTable.preload();
+        server.start();
+    }
+
+    /**
+     * @return The port the server is bound to.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return The number of solve requests passed to the solver and its
+     * cache, not counting requests which shared another's computation.
+     */
+    public long getComputations() {
+        return computations.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private interface Route {
+        String answer(Map<String, String> params);
+    }
+
+    private static void handle(HttpExchange exchange, Route route) throws IOException {
+        int status = 200;
+        String body;
+
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                status = 405;
+                body = "Only GET is supported";
+            } else {
+                body = route.answer(parseQuery(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = e.getMessage() == null ? "Bad request" : e.getMessage();
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+
+        return params;
+    }
+
+    private static String require(Map<String, String> params, String name) {
+        String value = params.get(name);
+
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+
+        return value;
+    }
+
+    private static int requireInt(Map<String, String> params, String name) {
+        try {
+            return Integer.parseInt(require(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parameter: " + name);
+        }
+    }
+
+    private String solve(Map<String, String> params) {
+        String challenge = require(params, "challenge");
+        String placement = params.getOrDefault("placement", "");
+        String key = challenge + ':' + placement;
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> shared = inFlight.putIfAbsent(key, mine);
+
+        if (shared != null) {
+            try {
+                return shared.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            computations.increment();
+            String solution = solver.apply(placement, challenge);
+            mine.complete(solution);
+            return solution;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private String validate(Map<String, String> params) {
+        return Boolean.toString(FocusGame.isPlacementStringValid(require(params, "placement")));
+    }
+
+    private String viable(Map<String, String> params) {
+        String challenge = require(params, "challenge");
+        String placement = params.getOrDefault("placement", "");
+        int col = requireInt(params, "col");
+        int row = requireInt(params, "row");
+
+        if (col < 0 || col > 8 || row < 0 || row > 4) {
+            throw new IllegalArgumentException("Location off the board: " + col + "," + row);
+        }
+
+        Set<String> viable = FocusGame.getViablePiecePlacements(placement, challenge, col, row);
+
+        return viable == null ? "" : String.join(" ", new TreeSet<>(viable));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SolveServer server = new SolveServer(new InetSocketAddress(port));
+
+        server.start();
+        System.err.println("Listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,220 @@
+package arlob.iqfocus.classes;
+
+/**
+ * A set of piece placements, at most one per shape, packed into two longs.
+ * <p>
+ * Each shape has a ten-bit field holding its {@link Placements} id plus one,
+ * or zero if the shape is not placed: shapes 'a' .. 'f' in the low long and
+ * 'g' .. 'j' in the high long. Equal arrangements have equal fields, so
+ * hashing and comparison are primitive operations. Instances are immutable.
+ */
+public final class Arrangement implements Comparable<Arrangement> {
+    private static final int FIELD = 10;
+    private static final int LOW_SHAPES = 6;
+    private static final long FIELD_MASK = (1L << FIELD) - 1;
+
+    public static final Arrangement EMPTY = new Arrangement(0L, 0L);
+
+    static {
+        if (Placements.count() >= 1 << FIELD) {
+            throw new IllegalStateException("Placement ids do not fit in " + FIELD + " bits");
+        }
+    }
+
+    private final long low;
+    private final long high;
+
+    private Arrangement(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Rebuild an arrangement from its packed fields, as returned by
+     * {@link #getLow()} and {@link #getHigh()}. The fields are not checked.
+     */
+    public static Arrangement of(long low, long high) {
+        return low == 0L && high == 0L ? EMPTY : new Arrangement(low, high);
+    }
+
+    /**
+     * Parse a placement string.
+     *
+     * @param placement A valid placement string, possibly empty.
+     * @throws IllegalArgumentException If the placement is malformed, off the
+     *                                  board, repeats a shape or overlaps.
+     */
+    public static Arrangement of(String placement) {
+        if (placement.length() % 4 != 0) {
+            throw new IllegalArgumentException("Invalid placement string: " + placement);
+        }
+
+        Arrangement arrangement = EMPTY;
+
+        for (int i = 0; i < placement.length(); i += 4) {
+            int id = Placements.idOf(placement.charAt(i), placement.charAt(i + 1) - '0',
+                    placement.charAt(i + 2) - '0', placement.charAt(i + 3) - '0');
+
+            if (id < 0 || arrangement.contains(Placements.shape(id))
+                    || (arrangement.getOccupied() & Placements.mask(id)) != 0) {
+                throw new IllegalArgumentException("Invalid placement string: " + placement);
+            }
+
+            arrangement = arrangement.with(id);
+        }
+
+        return arrangement;
+    }
+
+    /**
+     * @return The pieces on a board.
+     */
+    public static Arrangement of(BoardState board) {
+        long low = 0L, high = 0L;
+
+        for (int i = 0; i < board.getDepth(); i++) {
+            int id = board.getPlaced(i);
+            int shape = Placements.shape(id);
+
+            if (shape < LOW_SHAPES) {
+                low |= (id + 1L) << (FIELD * shape);
+            } else {
+                high |= (id + 1L) << (FIELD * (shape - LOW_SHAPES));
+            }
+        }
+
+        return of(low, high);
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * @param shape A shape index 0 .. 9 ('a' .. 'j').
+     * @return The placement id of the shape, or -1 if it is not placed.
+     */
+    public int get(int shape) {
+        long fields = shape < LOW_SHAPES ? low >>> (FIELD * shape) : high >>> (FIELD * (shape - LOW_SHAPES));
+
+        return (int) (fields & FIELD_MASK) - 1;
+    }
+
+    public boolean contains(int shape) {
+        return get(shape) >= 0;
+    }
+
+    /**
+     * @return This arrangement with the placement's shape moved to it. The
+     * placement is not checked against the other pieces.
+     */
+    public Arrangement with(int id) {
+        int shape = Placements.shape(id);
+
+        if (shape < LOW_SHAPES) {
+            int shift = FIELD * shape;
+            return of(low & ~(FIELD_MASK << shift) | (id + 1L) << shift, high);
+        }
+
+        int shift = FIELD * (shape - LOW_SHAPES);
+        return of(low, high & ~(FIELD_MASK << shift) | (id + 1L) << shift);
+    }
+
+    /**
+     * @param shape A shape index 0 .. 9 ('a' .. 'j').
+     * @return This arrangement with the shape taken off.
+     */
+    public Arrangement without(int shape) {
+        if (shape < LOW_SHAPES) {
+            return of(low & ~(FIELD_MASK << (FIELD * shape)), high);
+        }
+
+        return of(low, high & ~(FIELD_MASK << (FIELD * (shape - LOW_SHAPES))));
+    }
+
+    /**
+     * @return The number of pieces placed.
+     */
+    public int size() {
+        int size = 0;
+
+        for (int shape = 0; shape < 10; shape++) {
+            if (contains(shape)) size++;
+        }
+
+        return size;
+    }
+
+    /**
+     * @return The cells covered by the pieces.
+     */
+    public long getOccupied() {
+        long occupied = 0L;
+
+        for (int shape = 0; shape < 10; shape++) {
+            int id = get(shape);
+            if (id >= 0) occupied |= Placements.mask(id);
+        }
+
+        return occupied;
+    }
+
+    /**
+     * @return This arrangement with each piece in its canonical orientation.
+     */
+    public Arrangement canonical() {
+        Arrangement canonical = this;
+
+        for (int shape = 0; shape < 10; shape++) {
+            int id = get(shape);
+            if (id >= 0 && !Placements.isCanonical(id)) canonical = canonical.with(Placements.canonical(id));
+        }
+
+        return canonical;
+    }
+
+    /**
+     * Place the pieces on a board in shape order, without validating them.
+     */
+    public void placeOn(BoardState board) {
+        for (int shape = 0; shape < 10; shape++) {
+            int id = get(shape);
+            if (id >= 0) board.place(id);
+        }
+    }
+
+    /**
+     * @return The placement string, ordered by shape.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(40);
+
+        for (int shape = 0; shape < 10; shape++) {
+            int id = get(shape);
+            if (id >= 0) sb.append(Placements.toString(id));
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Arrangement && ((Arrangement) o).low == low && ((Arrangement) o).high == high;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(low * 31 + high);
+    }
+
+    @Override
+    public int compareTo(Arrangement o) {
+        int c = Long.compare(low, o.low);
+        return c != 0 ? c : Long.compare(high, o.high);
+    }
+}
@@ -1,153 +1,115 @@
 package arlob.iqfocus.classes;
 
-import arlob.iqfocus.FocusGame;
+public class BoardState {
+    /** Maximum number of pieces on the board, and so the depth of the undo stack. */
+    public static final int MAX_DEPTH = 10;
 
-import javafx.util.Pair;
-import java.util.List;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.ArrayList;
-import java.util.Arrays;
+    private static final int ALL_SHAPES = (1 << 10) - 1;
 
-public class BoardState {
     long occupied;
-    Set<Character> unplacedShapes;
-    String placementString = "";
+    int unplaced;
+    private final int[] placed = new int[MAX_DEPTH];
+    private int depth;
 
     public BoardState() {
         occupied = 0L;
-        unplacedShapes = new HashSet<>(Arrays.asList('a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j'));
+        unplaced = ALL_SHAPES;
     }
 
     public BoardState(String placement) {
         this();
 
         for (int i = 0; i < placement.length(); i += 4) {
-            Piece piece = new Piece(placement.substring(i, i + 4));
-            placePiece(piece);
+            placePiece(placement.substring(i, i + 4));
         }
     }
 
     public BoardState copy() {
         BoardState copy = new BoardState();
         copy.occupied = occupied;
-        copy.unplacedShapes = new HashSet<>(unplacedShapes);
+        copy.unplaced = unplaced;
+        copy.depth = depth;
+        System.arraycopy(placed, 0, copy.placed, 0, depth);
         return copy;
     }
 
-    public void placePiece(Piece piece) {
-        for (int y = 0; y < piece.getH(); y++) {
-            for (int x = 0; x < piece.getW(); x++) {
-                if (piece.getState(x, y) != State.EMPTY) {
-                    int pos = (piece.getLocation().Y + y) * 9 + piece.getLocation().X + x;
-                    occupied |= (1L << pos);
-                }
-            }
-        }
-
-        placementString += piece.toString();
-        
-        if (!FocusGame.isPlacementStringValid(placementString)) {
-            throw new IllegalArgumentException("Invalid placement string: " + placementString);
-        }
-
-        unplacedShapes.remove(piece.getPieceType().toChar());
-    }
-
-    public void placePiece(String pieceString) {
-        Piece piece = new Piece(pieceString);
-
-        placePiece(piece);
+    /**
+     * @param id A placement id from {@link Placements}.
+     * @return True if the placement's shape is unplaced and it does not overlap any placed piece.
+     */
+    public boolean canPlace(int id) {
+        return (unplaced & (1 << Placements.shape(id))) != 0 && (occupied & Placements.mask(id)) == 0;
     }
 
-    void removePiece(Piece piece) {
-        for (int y = 0; y < piece.getH(); y++) {
-            for (int x = 0; x < piece.getW(); x++) {
-                if (piece.getState(x, y) != State.EMPTY) {
-                    int pos = (piece.getLocation().Y + y) * 9 + piece.getLocation().X + x;
-                    occupied &= ~(1L << pos);
-                }
-            }
-        }
-
-        unplacedShapes.add(piece.getPieceType().toChar());
+    /**
+     * Push a placement onto the board without validating it. Callers in the
+     * search check {@link #canPlace(int)} first.
+     *
+     * @param id A placement id from {@link Placements}.
+     */
+    public void place(int id) {
+        occupied |= Placements.mask(id);
+        unplaced &= ~(1 << Placements.shape(id));
+        placed[depth++] = id;
     }
 
-    public void removePiece(String pieceString) {
-        Piece piece = new Piece(pieceString);
-
-        removePiece(piece);
+    /**
+     * Pop the most recent placement off the board.
+     */
+    public void undo() {
+        int id = placed[--depth];
+        occupied &= ~Placements.mask(id);
+        unplaced |= 1 << Placements.shape(id);
     }
 
-    public boolean isCellOccupied(int col, int row) {
-        return (occupied & (1L << (row * 9 + col))) != 0;
+    public int getDepth() {
+        return depth;
     }
 
-    private static boolean isCellForbidden(int col, int row) {
-        return (col == 0 && row == 4) || (col == 8 && row == 4);
+    /**
+     * @return The id of the placement at the given stack position, 0 being the first placed.
+     */
+    public int getPlaced(int i) {
+        return placed[i];
     }
 
-    public Set<Character> getUnplacedShapes() {
-        return unplacedShapes;
+    public void placePiece(Piece piece) {
+        placePiece(piece.toString());
     }
 
-    public List<Pair<Integer, Integer>> getEmptyCellsByPriority() {
-        List<int[]> emptyCells = new ArrayList<>();
-
-        for (int row = 0; row < 5; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (!isCellOccupied(col, row) && !isCellForbidden(col, row)) {
-                    emptyCells.add(new int[] { col, row, calculateCellPriority(col, row) });
-                }
-            }
-        }
-
-        emptyCells.sort((a, b) -> Integer.compare(a[2], b[2]));
+    public void placePiece(String pieceString) {
+        int id = Placements.idOf(pieceString);
 
-        List<Pair<Integer, Integer>> result = new ArrayList<>();
-        for (int[] cell : emptyCells) {
-            result.add(new Pair<>(cell[0], cell[1]));
+        if (id < 0 || !canPlace(id)) {
+            throw new IllegalArgumentException("Invalid placement string: " + this + pieceString);
         }
 
-        return result;
+        place(id);
     }
 
-    private int calculateCellPriority(int col, int row) {
-        // Central window gets highest priority
-        if (col >= 3 && col <= 5 && row >= 1 && row <= 3) {
-            return 1;
-        }
-
-        // Adjacent to central window
-        if (col >= 2 && col <= 6 && row >= 0 && row <= 4) {
-            return 2;
-        }
-
-        // Check constraint level
-        if (countViablePlacementsForCell(col, row) <= 2) {
-            return 3;
-        }
+    public long getOccupied() {
+        return occupied;
+    }
 
-        // Edge cells get lower priority
-        if (col == 0 || col == 8 || row == 0 || row == 4) {
-            return 4;
-        }
+    public boolean isCellOccupied(int col, int row) {
+        return (occupied & (1L << (row * 9 + col))) != 0;
+    }
 
-        return 5;
+    /**
+     * @return A bitmask with bit i set if shape 'a' + i is not on the board.
+     */
+    public int getUnplaced() {
+        return unplaced;
     }
 
-    private int countViablePlacementsForCell(int col, int row) {
-        int count = 0;
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
 
-        for (char shape : unplacedShapes) {
-            for (Orientation orientation : Orientation.values()) {
-                Piece piece = new Piece(shape, col, row, orientation);
-                if (FocusGame.isPlacementStringValid(piece.toString())) {
-                    count++;
-                }
-            }
+        for (int i = 0; i < depth; i++) {
+            sb.append(Placements.toString(placed[i]));
         }
 
-        return count;
+        return sb.toString();
     }
 }
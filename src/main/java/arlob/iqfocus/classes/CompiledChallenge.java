@@ -0,0 +1,212 @@
+package arlob.iqfocus.classes;
+
+/**
+ * A challenge string parsed once into per-colour masks over the central 3x3
+ * window.
+ * <p>
+ * Instances are immutable and may be shared between threads. {@link #of(String)}
+ * hands out a cached instance for each of the 4^9 possible challenges.
+ */
+public final class CompiledChallenge {
+    private static final State[] COLOURS = { State.RED, State.GREEN, State.BLUE, State.WHITE };
+
+    private static final CompiledChallenge[] cache = new CompiledChallenge[1 << 18];
+
+    /**
+     * Admits every placement, so that searches under it enumerate every tiling
+     * of the board. Its code is -1.
+     */
+    public static final CompiledChallenge UNCONSTRAINED = new CompiledChallenge(-1, 0L);
+
+    private final int code;
+    private final long window;
+    private final long[] colourMasks = new long[4];
+    private final long low;
+    private final long high;
+
+    private CompiledChallenge(int code) {
+        this(code, Placements.WINDOW);
+    }
+
+    private CompiledChallenge(int code, long window) {
+        this.code = code;
+        this.window = window;
+
+        if (window == 0L) {
+            this.low = this.high = 0L;
+            return;
+        }
+
+        long low = 0L, high = 0L;
+
+        for (int i = 0; i < 9; i++) {
+            int colour = (code >>> (2 * i)) & 3;
+            long bit = windowBit(i);
+
+            colourMasks[colour] |= bit;
+            if ((colour & 1) != 0) low |= bit;
+            if ((colour & 2) != 0) high |= bit;
+        }
+
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Parse a challenge string.
+     *
+     * @param challenge A 9-character string of 'R', 'G', 'B' and 'W' giving the
+     *                  colours of the central window row by row.
+     * @return The compiled challenge.
+     * @throws IllegalArgumentException If the string is not a well-formed challenge.
+     */
+    public static CompiledChallenge of(String challenge) {
+        if (challenge.length() != 9) {
+            throw new IllegalArgumentException("Invalid challenge: " + challenge);
+        }
+
+        int code = 0;
+
+        for (int i = 0; i < 9; i++) {
+            int colour = switch (challenge.charAt(i)) {
+                case 'R' -> 0;
+                case 'G' -> 1;
+                case 'B' -> 2;
+                case 'W' -> 3;
+                default -> throw new IllegalArgumentException("Invalid challenge: " + challenge);
+            };
+
+            code |= colour << (2 * i);
+        }
+
+        return of(code);
+    }
+
+    /**
+     * @param code An 18-bit challenge code as returned by {@link #code()}.
+     * @return The compiled challenge.
+     */
+    public static CompiledChallenge of(int code) {
+        if ((code >>> 18) != 0) {
+            throw new IllegalArgumentException("Invalid challenge code: " + code);
+        }
+
+        // Racy but benign: instances are immutable and any two for a code are equal
+        CompiledChallenge compiled = cache[code];
+
+        if (compiled == null) {
+            compiled = new CompiledChallenge(code);
+            cache[code] = compiled;
+        }
+
+        return compiled;
+    }
+
+    /**
+     * Read off the challenge shown in the central window by a board.
+     *
+     * @param board A board whose pieces cover the whole central window.
+     * @return The compiled challenge.
+     */
+    public static CompiledChallenge shownBy(BoardState board) {
+        int code = 0;
+        long covered = 0L;
+
+        for (int d = 0; d < board.getDepth(); d++) {
+            int id = board.getPlaced(d);
+
+            if ((Placements.mask(id) & Placements.WINDOW) == 0) continue;
+
+            for (int i = 0; i < 9; i++) {
+                long bit = windowBit(i);
+
+                if ((Placements.mask(id) & bit) == 0) continue;
+
+                for (State colour : COLOURS) {
+                    if ((Placements.colourMask(id, colour) & bit) != 0) {
+                        code |= colour.ordinal() << (2 * i);
+                    }
+                }
+
+                covered |= bit;
+            }
+        }
+
+        if (covered != Placements.WINDOW) {
+            throw new IllegalArgumentException("Board does not cover the central window: " + board);
+        }
+
+        return of(code);
+    }
+
+    /**
+     * @return The board bit of the i-th window cell, indexed as in the challenge string.
+     */
+    public static long windowBit(int i) {
+        return 1L << ((i / 3 + 1) * Placements.COLS + (i % 3) + 3);
+    }
+
+    /**
+     * Check whether a placement is consistent with the challenge, that is every
+     * window cell it covers shows the colour the challenge asks for.
+     *
+     * @param id A placement id from {@link Placements}.
+     */
+    public boolean admits(int id) {
+        return (((Placements.lowPlane(id) ^ low) | (Placements.highPlane(id) ^ high))
+                & Placements.mask(id) & window) == 0;
+    }
+
+    /**
+     * Check whether every piece already on a board is consistent with the challenge.
+     */
+    public boolean admits(BoardState board) {
+        for (int d = 0; d < board.getDepth(); d++) {
+            if (!admits(board.getPlaced(d))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The window cells the challenge assigns the given colour.
+     */
+    public long colourMask(State colour) {
+        return colourMasks[colour.ordinal()];
+    }
+
+    /**
+     * @return The challenge as an 18-bit code, two bits per window cell holding
+     * the colour's {@link State#ordinal()}.
+     */
+    public int code() {
+        return code;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompiledChallenge && ((CompiledChallenge) o).code == code;
+    }
+
+    @Override
+    public int hashCode() {
+        return code;
+    }
+
+    @Override
+    public String toString() {
+        if (window == 0L) {
+            return "UNCONSTRAINED";
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 9; i++) {
+            sb.append(COLOURS[(code >>> (2 * i)) & 3].toChar());
+        }
+
+        return sb.toString();
+    }
+}
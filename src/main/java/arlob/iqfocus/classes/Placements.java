@@ -0,0 +1,321 @@
+package arlob.iqfocus.classes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static table of every legal piece placement on the board.
+ * <p>
+ * Each (shape, column, row, orientation) combination that lies entirely on
+ * the board and avoids the two forbidden corner cells is given a small integer
+ * id. For each id the table holds the 45-bit occupancy mask, one mask per
+ * colour and the canonical four-character placement string. Cells are indexed
+ * as {@code row * 9 + col}.
+ * <p>
+ * Orientations of a shape which give the same grid of colours, found by
+ * comparing the rotated grids of each shape, cover the same cells. The lowest
+ * such orientation is taken as canonical, so each distinct footprint has one
+ * canonical placement.
+ */
+public class Placements {
+    public static final int COLS = 9;
+    public static final int ROWS = 5;
+    public static final int CELLS = COLS * ROWS;
+
+    public static final long BOARD = (1L << CELLS) - 1;
+    public static final long FORBIDDEN = (1L << (4 * COLS + 0)) | (1L << (4 * COLS + 8));
+    public static final long WINDOW = 0b111L << (1 * COLS + 3) | 0b111L << (2 * COLS + 3) | 0b111L << (3 * COLS + 3);
+
+    private static final int[] index = new int[10 * COLS * ROWS * 4];
+
+    private static final long[] masks;
+    private static final long[][] colourMasks;
+    private static final long[] lowPlanes;
+    private static final long[] highPlanes;
+    private static final String[] strings;
+    private static final int[] shapes;
+    private static final int[][] candidates;
+    private static final int[][] canonicalCandidates;
+    private static final int[] canonicalIds;
+    private static final int[] canonicalOnly;
+
+    static {
+        List<Piece> pieces = new ArrayList<>();
+        List<long[]> colours = new ArrayList<>();
+
+        for (int i = 0; i < index.length; i++) {
+            index[i] = -1;
+        }
+
+        for (char shape = 'a'; shape <= 'j'; shape++) {
+            for (Orientation orientation : Orientation.values()) {
+                for (int row = 0; row < ROWS; row++) {
+                    for (int col = 0; col < COLS; col++) {
+                        Piece piece = new Piece(shape, col, row, orientation);
+                        long[] colour = footprint(piece);
+
+                        if (colour == null) continue;
+
+                        index[key(shape - 'a', col, row, orientation.ordinal())] = pieces.size();
+                        pieces.add(piece);
+                        colours.add(colour);
+                    }
+                }
+            }
+        }
+
+        int count = pieces.size();
+        masks = new long[count];
+        colourMasks = new long[4][count];
+        lowPlanes = new long[count];
+        highPlanes = new long[count];
+        strings = new String[count];
+        shapes = new int[count];
+
+        int[] perCell = new int[CELLS];
+
+        for (int id = 0; id < count; id++) {
+            long[] colour = colours.get(id);
+
+            for (int c = 0; c < 4; c++) {
+                colourMasks[c][id] = colour[c];
+                masks[id] |= colour[c];
+                if ((c & 1) != 0) lowPlanes[id] |= colour[c] & WINDOW;
+                if ((c & 2) != 0) highPlanes[id] |= colour[c] & WINDOW;
+            }
+
+            strings[id] = pieces.get(id).toString();
+            shapes[id] = pieces.get(id).getPieceType().ordinal();
+
+            for (long m = masks[id]; m != 0; m &= m - 1) {
+                perCell[Long.numberOfTrailingZeros(m)]++;
+            }
+        }
+
+        int[][] canonicalOrientations = new int[10][4];
+        for (char shape = 'a'; shape <= 'j'; shape++) {
+            for (Orientation orientation : Orientation.values()) {
+                Piece piece = new Piece(shape, 0, 0, orientation);
+                int canonical = orientation.ordinal();
+
+                for (Orientation other : Orientation.values()) {
+                    if (other.ordinal() < canonical && sameGrid(piece, new Piece(shape, 0, 0, other))) {
+                        canonical = other.ordinal();
+                    }
+                }
+
+                canonicalOrientations[shape - 'a'][orientation.ordinal()] = canonical;
+            }
+        }
+
+        canonicalIds = new int[count];
+        for (int id = 0; id < count; id++) {
+            Piece piece = pieces.get(id);
+            Location loc = piece.getLocation();
+            int shape = piece.getPieceType().ordinal();
+
+            canonicalIds[id] = index[key(shape, loc.X, loc.Y,
+                    canonicalOrientations[shape][piece.getOrientation().ordinal()])];
+        }
+
+        candidates = new int[CELLS][];
+        for (int cell = 0; cell < CELLS; cell++) {
+            candidates[cell] = new int[perCell[cell]];
+            perCell[cell] = 0;
+        }
+
+        for (int id = 0; id < count; id++) {
+            for (long m = masks[id]; m != 0; m &= m - 1) {
+                int cell = Long.numberOfTrailingZeros(m);
+                candidates[cell][perCell[cell]++] = id;
+            }
+        }
+
+        canonicalCandidates = new int[CELLS][];
+        for (int cell = 0; cell < CELLS; cell++) {
+            canonicalCandidates[cell] = onlyCanonical(candidates[cell]);
+        }
+
+        int[] all = new int[count];
+        for (int id = 0; id < count; id++) {
+            all[id] = id;
+        }
+        canonicalOnly = onlyCanonical(all);
+    }
+
+    private Placements() {
+    }
+
+    /**
+     * Compute the per-colour masks covered by a piece, or null if any part of
+     * it falls off the board or on a forbidden cell.
+     */
+    private static long[] footprint(Piece piece) {
+        Location loc = piece.getLocation();
+
+        if (loc.X + piece.getW() > COLS || loc.Y + piece.getH() > ROWS) {
+            return null;
+        }
+
+        long[] colour = new long[4];
+
+        for (int y = 0; y < piece.getH(); y++) {
+            for (int x = 0; x < piece.getW(); x++) {
+                State state = piece.getState(x, y);
+                if (state == State.EMPTY) continue;
+
+                long bit = 1L << ((loc.Y + y) * COLS + loc.X + x);
+
+                if ((FORBIDDEN & bit) != 0) {
+                    return null;
+                }
+
+                colour[state.ordinal()] |= bit;
+            }
+        }
+
+        return colour;
+    }
+
+    private static int[] onlyCanonical(int[] ids) {
+        int n = 0;
+        int[] kept = new int[ids.length];
+
+        for (int id : ids) {
+            if (canonicalIds[id] == id) kept[n++] = id;
+        }
+
+        return Arrays.copyOf(kept, n);
+    }
+
+    /**
+     * @return True if two placements of a shape have the same dimensions and
+     * colour in every cell.
+     */
+    private static boolean sameGrid(Piece a, Piece b) {
+        if (a.getW() != b.getW() || a.getH() != b.getH()) {
+            return false;
+        }
+
+        for (int y = 0; y < a.getH(); y++) {
+            for (int x = 0; x < a.getW(); x++) {
+                if (a.getState(x, y) != b.getState(x, y)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static int key(int shape, int col, int row, int orientation) {
+        return ((shape * COLS + col) * ROWS + row) * 4 + orientation;
+    }
+
+    /**
+     * @return The number of legal placements in the table.
+     */
+    public static int count() {
+        return masks.length;
+    }
+
+    /**
+     * Look up a placement id.
+     *
+     * @return The id, or -1 if the placement is out of range or not entirely on the board.
+     */
+    public static int idOf(char shape, int col, int row, int orientation) {
+        if (shape < 'a' || shape > 'j' || col < 0 || col >= COLS || row < 0 || row >= ROWS
+                || orientation < 0 || orientation > 3) {
+            return -1;
+        }
+
+        return index[key(shape - 'a', col, row, orientation)];
+    }
+
+    /**
+     * Look up the id of a four-character piece placement.
+     *
+     * @return The id, or -1 if the placement is malformed or not entirely on the board.
+     */
+    public static int idOf(String placement) {
+        if (placement.length() != 4) {
+            return -1;
+        }
+
+        return idOf(placement.charAt(0), placement.charAt(1) - '0',
+                placement.charAt(2) - '0', placement.charAt(3) - '0');
+    }
+
+    public static long mask(int id) {
+        return masks[id];
+    }
+
+    public static long colourMask(int id, State colour) {
+        return colourMasks[colour.ordinal()][id];
+    }
+
+    /**
+     * The low bit of each window cell's colour ordinal, over the cells this
+     * placement covers in the central window.
+     */
+    public static long lowPlane(int id) {
+        return lowPlanes[id];
+    }
+
+    /**
+     * The high bit of each window cell's colour ordinal, over the cells this
+     * placement covers in the central window.
+     */
+    public static long highPlane(int id) {
+        return highPlanes[id];
+    }
+
+    /**
+     * @return The shape of the placement as an index 0 .. 9 ('a' .. 'j').
+     */
+    public static int shape(int id) {
+        return shapes[id];
+    }
+
+    /**
+     * @return True if the placement is the canonical encoding of its footprint.
+     */
+    public static boolean isCanonical(int id) {
+        return canonicalIds[id] == id;
+    }
+
+    /**
+     * @return The canonical placement with the same footprint and colours.
+     */
+    public static int canonical(int id) {
+        return canonicalIds[id];
+    }
+
+    public static String toString(int id) {
+        return strings[id];
+    }
+
+    /**
+     * @return The ids of every placement covering the given cell. Must not be modified.
+     */
+    public static int[] candidates(int cell) {
+        return candidates[cell];
+    }
+
+    /**
+     * @return The ids of the canonical placements covering the given cell, so
+     * that each footprint appears once. Must not be modified.
+     */
+    public static int[] canonicalCandidates(int cell) {
+        return canonicalCandidates[cell];
+    }
+
+    /**
+     * @return The ids of every canonical placement, in increasing order. Must not be modified.
+     */
+    public static int[] canonicalIds() {
+        return canonicalOnly;
+    }
+}
@@ -1,8 +1,14 @@
 package arlob.iqfocus.gui;
 
+import arlob.iqfocus.ChallengeGenerator;
 import arlob.iqfocus.FocusGame;
-import arlob.iqfocus.Solution;
-import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.HintService;
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
+import arlob.iqfocus.solver.Budget;
+import arlob.iqfocus.solver.SolutionTable;
+import arlob.iqfocus.solver.SolveResult;
 
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -11,7 +17,6 @@ import javafx.event.EventHandler;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
@@ -22,7 +27,6 @@ import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
 
 import java.util.HashMap;
-import java.util.Random;
 
 
 public class Board extends Application {
@@ -33,9 +37,6 @@ public class Board extends Application {
     private static final int SQUARE_SIZE = 60;
 
 
-
-    private final String BASEBOARD_URI = getClass().getClassLoader().getResource("lite-1.png").toString();
-
     private static final int MARGIN_X = 30;
     private static final int MARGIN_Y = 30;
     private static final int BOARD_Y = MARGIN_Y;
@@ -47,17 +48,27 @@ public class Board extends Application {
 
     private static final char OFF_BOARD = 32;
 
-    private PlaceString ps = new PlaceString();
+    /* The pieces on the board and the cells they cover, updated move by move */
+    private Arrangement placed = Arrangement.EMPTY;
+    private long occupied = 0L;
+
+    private final ChallengeGenerator generator = new ChallengeGenerator();
 
-    private BoardState state = new BoardState();
+    private final HintService hints = new HintService();
+
+    /* Game logic runs in the background so that dragging stays smooth */
+    private final LatestTask gameTask = new LatestTask();
+    private final LatestTask hintTask = new LatestTask();
+    private final LatestTask checkTask = new LatestTask();
 
     String objective;
-    String solution;
+    CompiledChallenge compiled;
 
     HashMap<Character, DraggablePiece> pieceMap = new HashMap<>();
 
     Text completionText = new Text("You win");
     Text warning = new Text("INVALID PLACEMENT");
+    Text hintText = new Text();
 
     private final Group root = new Group();
     private final Group board = new Group();
@@ -65,94 +76,6 @@ public class Board extends Application {
     private final Group controls = new Group();
     private final Group challengeDisplay = new Group();
 
-    class PlaceString {
-        /* Stores an ordered placement string, has methods to alter individual parts */
-        private String a, b, c, d, e, f, g, h, i, j;
-
-        PlaceString() {
-            clear();
-        }
-
-        PlaceString(PlaceString p) {
-            this.a = p.a;
-            this.b = p.b;
-            this.c = p.c;
-            this.d = p.d;
-            this.e = p.e;
-            this.f = p.f;
-            this.g = p.g;
-            this.h = p.h;
-            this.i = p.i;
-            this.j = p.j;
-        }
-
-        public void updateString(String s) {
-            switch(s.charAt(0)) {
-                case 'a': a = s;
-                    break;
-                case 'b': b = s;
-                    break;
-                case 'c': c = s;
-                    break;
-                case 'd': d = s;
-                    break;
-                case 'e': e = s;
-                    break;
-                case 'f': f = s;
-                    break;
-                case 'g': g = s;
-                    break;
-                case 'h': h = s;
-                    break;
-                case 'i': i = s;
-                    break;
-                case 'j': j = s;
-            }
-        }
-
-        public void remove(char z) {
-            switch(z) {
-                case 'a': a = "";
-                    break;
-                case 'b': b = "";
-                    break;
-                case 'c': c = "";
-                    break;
-                case 'd': d = "";
-                    break;
-                case 'e': e = "";
-                    break;
-                case 'f': f = "";
-                    break;
-                case 'g': g = "";
-                    break;
-                case 'h': h = "";
-                    break;
-                case 'i': i = "";
-                    break;
-                case 'j': j = "";
-            }
-        }
-
-        public void clear() {
-            a = "";
-            b = "";
-            c = "";
-            d = "";
-            e = "";
-            f = "";
-            g = "";
-            h = "";
-            i = "";
-            j = "";
-        }
-
-        @Override
-        public String toString() {
-            return a + b + c + d + e + f + g + h + i + j;
-        }
-    }
-
     class Piece extends ImageView {
         int tileID;
 
@@ -160,11 +83,7 @@ public class Board extends Application {
             if(type > 'j' || type < 'a') { throw new IllegalArgumentException("Bad tile: \"" + type + "\""); }
 
             this.tileID = type - 'a';
-            Image img = new Image(getClass().getClassLoader().getResource(type + ".png").toString());
-            setImage(img);
-
-            setFitHeight(img.getHeight() * 0.6);
-            setFitWidth(img.getWidth() * 0.6);
+            setImage(Sprites.get(Character.toString(type)));
         }
     }
 
@@ -216,6 +135,7 @@ public class Board extends Application {
             });
 
             setOnMouseReleased(event -> {     // drag is complete
+                hideHint();
                 setCoords();
                 update();
                 addToGrid();
@@ -270,26 +190,22 @@ public class Board extends Application {
 
         private void addToGrid() {
             /* Places tiles on grid according to x,y  */
-            if(FocusGame.isPlacementStringValid(ps.toString())) {
+            onBoard = placed.contains(type - 'a');
+
+            if(onBoard) {
                 setLayoutX(PLAY_AREA_X + this.x * SQUARE_SIZE - (orientation % 2 == 1 ? mod : 0));
                 setLayoutY(PLAY_AREA_Y + this.y * SQUARE_SIZE + (orientation % 2 == 1 ? mod : 0));
             }
-            onBoard = true;
-
-            checkCompletion();
         }
 
         private void update() {
-            /* Updates global placement string */
-            String s = Character.toString(type) + x + "" + y + ((type == 'f' || type == 'g') ? orientation % 2 : orientation);
+            /* Moves the piece on the live board, sending it home if it does not fit */
+            int id = Placements.idOf(type, x, y, (type == 'f' || type == 'g') ? orientation % 2 : orientation);
 
-            PlaceString a = new PlaceString(ps);
-            a.updateString(s);
-            if(!a.toString().equals("") && !FocusGame.isPlacementStringValid(a.toString())) {
+            if(id < 0 || !move(type, id)) {
                 returnHome();
                 showWarning();
             } else {
-                ps.updateString(s);
                 hideWarning();
             }
         }
@@ -297,12 +213,13 @@ public class Board extends Application {
         private void returnHome() {
             orientation = 0;
             setRotate(0);
-            ps.remove(type);
+            lift(type);
             relocate(homeX, homeY);
             onBoard = false;
         }
 
         private void rotate() {
+            hideHint();
             orientation = (orientation + 1) % 4;
             if(onBoard)
                 update();
@@ -336,13 +253,56 @@ public class Board extends Application {
         }
     }
 
+    private boolean move(char type, int id) {
+        /* Swaps the piece's old mask for its new one, unless the new one overlaps another piece */
+        int old = placed.get(type - 'a');
+        long rest = old < 0 ? occupied : occupied & ~Placements.mask(old);
+
+        if((rest & Placements.mask(id)) != 0) {
+            return false;
+        }
+
+        placed = placed.with(id);
+        occupied = rest | Placements.mask(id);
+        return true;
+    }
+
+    private void lift(char type) {
+        int old = placed.get(type - 'a');
+
+        if(old >= 0) {
+            placed = placed.without(type - 'a');
+            occupied &= ~Placements.mask(old);
+        }
+    }
+
+    private boolean isComplete() {
+        /* Solved once every cell is covered and every piece shows the objective's colours */
+        return (occupied | Placements.FORBIDDEN) == Placements.BOARD && agreesWithObjective();
+    }
+
+    private boolean agreesWithObjective() {
+        /* True if every piece placed shows the objective's colours in the window */
+        if(compiled == null) {
+            return false;
+        }
+
+        for(int shape = 0; shape < 10; shape++) {
+            int id = placed.get(shape);
+
+            if(id >= 0 && !compiled.admits(id)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private void makeBoard() {
         board.getChildren().clear();
 
         ImageView baseboard = new ImageView();
-        baseboard.setImage(new Image(BASEBOARD_URI));
-        baseboard.setFitWidth(BOARD_WIDTH);
-        baseboard.setFitHeight(BOARD_HEIGHT);
+        baseboard.setImage(Sprites.get("lite-1", BOARD_WIDTH, BOARD_HEIGHT));
         baseboard.setLayoutX(BOARD_X);
         baseboard.setLayoutY(BOARD_Y);
         board.getChildren().add(baseboard);
@@ -357,6 +317,9 @@ public class Board extends Application {
                 challengeDisplay.setOpacity(1.0);
                 pieces.setOpacity(0.0);
                 event.consume();
+            } else if (event.getCode() == KeyCode.H) {
+                requestHint();
+                event.consume();
             } else if (event.getCode() == KeyCode.Q) {
                 Platform.exit();
                 event.consume();
@@ -374,9 +337,21 @@ public class Board extends Application {
 
 
     private void getChallenge() {
-        /* Retrieves challenge from solution file */
-        objective = Solution.SOLUTIONS[new Random().nextInt(Solution.SOLUTIONS.length)].objective;
-        solution = Solution.SOLUTIONS[new Random().nextInt(Solution.SOLUTIONS.length)].placement;
+        /* Generates a fresh challenge with a unique solution in the background */
+        objective = null;
+        compiled = null;
+
+        gameTask.submit(() -> generator.next(null), s -> {
+            if (s == null) {
+                hintText.setText("No challenge available");
+                return;
+            }
+
+            objective = s.objective;
+            compiled = CompiledChallenge.of(objective);
+            displayChallenge(objective, BOARD_X + 3 * SQUARE_SIZE, BOARD_Y + SQUARE_SIZE);
+            challengeDisplay.setOpacity(0.0);
+        });
     }
 
     private void displayChallenge(String challenge, int x, int y) {
@@ -384,16 +359,14 @@ public class Board extends Application {
         int a = 0;
         int b = 0;
 
-        challengeDisplay.getChildren().removeAll();
+        challengeDisplay.getChildren().clear();
 
         for(int i = 0; i < 3; i++) {
             for(int j = 0; j < 3; j++) {
                 ImageView img = new ImageView();
-                img.setImage(new Image(getClass().getClassLoader().getResource("sq-" + Character.toLowerCase(challenge.toCharArray()[(i*3) + j]) + ".png").toString()));
+                img.setImage(Sprites.get("sq-" + Character.toLowerCase(challenge.charAt((i*3) + j))));
                 img.setLayoutX(x);
                 img.setLayoutY(y);
-                img.setFitHeight(img.getImage().getHeight() * 0.6);
-                img.setFitWidth(img.getImage().getWidth() * 0.6);
                 img.setTranslateX(a);
                 img.setTranslateY(b);
 
@@ -416,6 +389,61 @@ public class Board extends Application {
         root.getChildren().add(warning);
     }
 
+    private void makeHint() {
+        hintText.setFill(Color.BLACK);
+        hintText.setFont(Font.font("Arial", FontWeight.BOLD, 24));
+        hintText.setLayoutX(BOARD_X);
+        hintText.setLayoutY(BOARD_Y + BOARD_HEIGHT + 30);
+        root.getChildren().add(hintText);
+    }
+
+    private void requestHint() {
+        /* Hints are computed off the FX thread and shown once ready */
+        String challenge = objective;
+        String placement = placed.toString();
+
+        if (challenge == null) return;
+
+        hintTask.submit(() -> hints.getHint(challenge, placement), hint -> {
+            hideHint();
+            hintText.setText(hint.getPlacement() == null ? "No hint" : "Hint: " + hint.getPlacement());
+            for (String piece : hint.getInconsistent()) {
+                DraggablePiece p = pieceMap.get(piece.charAt(0));
+                if (p != null) p.setOpacity(0.5);
+            }
+        });
+    }
+
+    private void checkSolvable() {
+        /* Warns in the background when the pieces placed cannot lead to a solution */
+        String challenge = objective;
+        String placement = placed.toString();
+
+        if (challenge == null || placement.isEmpty()) return;
+
+        /* A piece showing the wrong colours needs no search */
+        if (!agreesWithObjective()) {
+            checkTask.cancel();
+            hintText.setText("No solution from here");
+            return;
+        }
+
+        checkTask.submit(() -> FocusGame.getSolution(placement, challenge, Budget.unlimited()), result -> {
+            if (result.getStatus() == SolveResult.Status.NO_SOLUTION) {
+                hintText.setText("No solution from here");
+            }
+        });
+    }
+
+    private void hideHint() {
+        hintTask.cancel();
+        checkTask.cancel();
+        hintText.setText("");
+        for (DraggablePiece p : pieceMap.values()) {
+            p.setOpacity(1.0);
+        }
+    }
+
     private void makeInstructions() {
 
     }
@@ -453,18 +481,19 @@ public class Board extends Application {
     }
 
     private void checkCompletion() {
-        if(ps.toString().equals("a000b200")) {
+        if(isComplete()) {
             showCompletion();
         } else {
             hideCompletion();
-            System.out.println(ps);
+            checkSolvable();
         }
     }
 
     private void resetGame() {
         pieces.getChildren().clear();
         pieceMap.clear();
-        ps.clear();
+        placed = Arrangement.EMPTY;
+        occupied = 0L;
     }
 
     private void makeControls() {
@@ -510,28 +539,20 @@ public class Board extends Application {
     }
 
     private void newGame() {
-        try {
-            hideCompletion();
-            getChallenge();
-            displayChallenge(objective, BOARD_X + 3 * SQUARE_SIZE, BOARD_Y + SQUARE_SIZE);
-            challengeDisplay.setOpacity(0.0);
-        } catch (IllegalArgumentException e) {
-            System.err.println("Uh oh. " + e);
-            e.printStackTrace();
-            Platform.exit();
-        }
+        hideCompletion();
+        hideHint();
+        getChallenge();
         resetGame();
     }
 
-    // FIXME Task 10: Implement hints
-
-    // FIXME Task 11: Generate interesting challenges (each challenge may have just one solution)
-
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("IQ-Focus");
         Scene scene = new Scene(root, GAME_WIDTH, GAME_HEIGHT);
 
+        Sprites.preload();
+        SolutionTable.preload();
+
         root.getChildren().add(board);
         root.getChildren().add(pieces);
         root.getChildren().add(controls);
@@ -541,6 +562,7 @@ public class Board extends Application {
         makeControls();
         makeCompletion();
         makeWarning();
+        makeHint();
 
         setUpHandlers(scene);
 
@@ -0,0 +1,73 @@
+package arlob.iqfocus.gui;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs the board's game logic off the FX thread, keeping only the latest
+ * request of each kind.
+ * <p>
+ * Each instance has at most one task that matters: submitting new work
+ * cancels the task before it, interrupting it if it is running, and the
+ * results of superseded tasks are dropped. Results are handed back on the FX
+ * thread by the task's success handler. Instances must only be used from the
+ * FX thread.
+ */
+class LatestTask {
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "board-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Task<?> current;
+
+    /**
+     * Run work in the background, superseding any earlier work.
+     *
+     * @param work   The computation, run on a worker thread.
+     * @param onDone Called on the FX thread with the result, unless the work
+     *               has been superseded or cancelled by then.
+     */
+    <T> void submit(Callable<T> work, Consumer<T> onDone) {
+        cancel();
+
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+
+        task.setOnSucceeded(event -> {
+            if (current == task) {
+                current = null;
+                onDone.accept(task.getValue());
+            }
+        });
+
+        task.setOnFailed(event -> {
+            if (current == task) {
+                current = null;
+            }
+            System.err.println("Background task failed: " + task.getException());
+        });
+
+        current = task;
+        executor.execute(task);
+    }
+
+    /**
+     * Drop the pending work, if any.
+     */
+    void cancel() {
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package arlob.iqfocus.gui;
+
+import javafx.scene.image.Image;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decodes the game's images once and shares them between views.
+ * <p>
+ * Images are scaled as they are decoded to the size they are drawn at, so
+ * views show them at their natural size. {@link #preload()} decodes the
+ * piece and challenge sprites on a background thread at startup; anything
+ * asked for before it gets there is decoded on first use instead. Either
+ * way an image is fully loaded before it is handed out, since callers read
+ * its size straight away to lay pieces out. Images are immutable, so one
+ * instance can back any number of views.
+ */
+final class Sprites {
+    /** Scale from the image files, 100 pixels per square, to the 60 pixel board squares. */
+    static final double SCALE = 0.6;
+
+    private static final String[] SPRITES = {
+            "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "sq-b", "sq-g", "sq-r", "sq-w"
+    };
+
+    private static final ConcurrentMap<String, Image> images = new ConcurrentHashMap<>();
+    private static final AtomicBoolean preloading = new AtomicBoolean();
+
+    private Sprites() {
+    }
+
+    /**
+     * Start decoding the sprites in the background, if not already started.
+     */
+    static void preload() {
+        if (!preloading.compareAndSet(false, true)) return;
+
+        Thread thread = new Thread(() -> {
+            for (String name : SPRITES) {
+                get(name);
+            }
+        }, "sprite-preload");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param name A resource name without the ".png" suffix, e.g. "a" or "sq-r".
+     * @return The image scaled by {@link #SCALE}, fully decoded so that its
+     * size can be read straight away.
+     */
+    static Image get(String name) {
+        return images.computeIfAbsent(name, n -> {
+            URL url = resource(n);
+            int[] size = pngSize(url);
+            return new Image(url.toString(), size[0] * SCALE, size[1] * SCALE, false, true, false);
+        });
+    }
+
+    /**
+     * @param name A resource name without the ".png" suffix.
+     * @return The image scaled to the given size, fully decoded.
+     */
+    static Image get(String name, double width, double height) {
+        return images.computeIfAbsent(name + "@" + width + "x" + height,
+                n -> new Image(resource(name).toString(), width, height, false, true, false));
+    }
+
+    private static URL resource(String name) {
+        URL url = Sprites.class.getClassLoader().getResource(name + ".png");
+
+        if (url == null) {
+            throw new IllegalArgumentException("No such image: " + name);
+        }
+
+        return url;
+    }
+
+    /**
+     * Read the width and height from a PNG header, without decoding the image.
+     */
+    private static int[] pngSize(URL url) {
+        try (InputStream in = url.openStream()) {
+            DataInputStream data = new DataInputStream(in);
+
+            /* 8 byte signature, then the IHDR chunk's length and type */
+            data.skipNBytes(16);
+            return new int[] { data.readInt(), data.readInt() };
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable image: " + url, e);
+        }
+    }
+}
@@ -44,8 +44,6 @@ public class Viewer extends Application {
         tiles.getChildren().clear();
         int n = placement.length();
 
-        double pixelSize=0.6;//60/100  view size/image size
-
         for (int i = 0; i < n; i = i + 4) {
             String piece = placement.substring(i, i + 4);
             int col = Character.getNumericValue(piece.charAt(1));
@@ -53,14 +51,11 @@ public class Viewer extends Application {
             int ori = Character.getNumericValue(piece.charAt(3));
 
             ImageView imgView = new ImageView(); //https://docs.oracle.com/javase/8/javafx/api/index.html?javafx/scene/image/ImageView.html
-            Image img = new Image(getClass().getClassLoader().getResource(piece.charAt(0) + ".png").toString());
-
+            Image img = Sprites.get(piece.substring(0, 1)); // shared, already scaled to the squares
 
-            double height = img.getHeight() * pixelSize;
-            double width = img.getWidth() * pixelSize;
-            imgView.setFitHeight(height);
-            imgView.setFitWidth(width); // https://stackoverflow.com/questions/27894945/how-do-i-resize-an-imageview-image-in-javafx/27894962
-            imgView.setImage(img); // get path of the image to create new image
+            double height = img.getHeight();
+            double width = img.getWidth();
+            imgView.setImage(img);
 
             double x= col * SQUARE_SIZE,
                     y = row * SQUARE_SIZE;
@@ -107,6 +102,8 @@ public class Viewer extends Application {
         primaryStage.setTitle("FocusGame Viewer");
         Scene scene = new Scene(root, VIEWER_WIDTH, VIEWER_HEIGHT);
 
+        Sprites.preload();
+
         root.getChildren().add(controls);
         root.getChildren().add(tiles);
 
@@ -0,0 +1,502 @@
+package arlob.iqfocus.solver;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
+import arlob.iqfocus.classes.State;
+import arlob.iqfocus.classes.States;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Algorithm X over bitsets of placement ids.
+ * <p>
+ * The set of rows still live is a bitset over the placement table. Choosing a
+ * placement clears every row that shares a cell or the shape with it by
+ * AND-NOT with a precomputed conflict bitset. The search branches on the free
+ * cell with the fewest live rows, counted by popcount against each cell's
+ * precomputed row bitset. One live bitset per depth is kept, so the search does
+ * not allocate.
+ * <p>
+ * After each placement the free cells are split into connected regions by a
+ * shift-based flood fill. A node is pruned if any region's size is not a sum
+ * of the sizes of the pieces still to place, since no combination of them
+ * could fill it.
+ * <p>
+ * Before branching, placements which are forced are committed: the only live
+ * row covering some cell, or the only live row left for some shape. This is
+ * repeated until nothing is forced, and the forced placements are undone
+ * together when the node backtracks.
+ */
+public class BitsetSolver implements Solver {
+    /** How many branching nodes pass between checks of the search's {@link Budget}. */
+    public static final int CHECK_INTERVAL = 64;
+
+    static final int WORDS = (Placements.count() + 63) >>> 6;
+
+    static final long PLAYABLE = Placements.BOARD & ~Placements.FORBIDDEN;
+
+    /** For each cell, the placements covering it. */
+    static final long[][] cellRows = new long[Placements.CELLS][WORDS];
+
+    /** For each shape, its placements. */
+    static final long[][] shapeRows = new long[10][WORDS];
+
+    /** For each placement, the placements which overlap it or share its shape. */
+    static final long[][] conflicts = new long[Placements.count()][WORDS];
+
+    /** For each set of shapes, bit n is set if some subset of them covers exactly n cells. */
+    static final long[] fillable = new long[1 << 10];
+
+    private static final long FIRST_COL;
+    private static final long LAST_COL;
+
+    static {
+        for (int id = 0; id < Placements.count(); id++) {
+            shapeRows[Placements.shape(id)][id >>> 6] |= 1L << id;
+
+            for (long m = Placements.mask(id); m != 0; m &= m - 1) {
+                cellRows[Long.numberOfTrailingZeros(m)][id >>> 6] |= 1L << id;
+            }
+        }
+
+        for (int id = 0; id < Placements.count(); id++) {
+            long[] conflict = conflicts[id];
+            long[] shape = shapeRows[Placements.shape(id)];
+
+            for (int w = 0; w < WORDS; w++) {
+                conflict[w] = shape[w];
+            }
+
+            for (long m = Placements.mask(id); m != 0; m &= m - 1) {
+                long[] cell = cellRows[Long.numberOfTrailingZeros(m)];
+
+                for (int w = 0; w < WORDS; w++) {
+                    conflict[w] |= cell[w];
+                }
+            }
+        }
+
+        int[] sizes = new int[10];
+        for (int shape = 0; shape < 10; shape++) {
+            for (State state : States.states[shape]) {
+                if (state != State.EMPTY) sizes[shape]++;
+            }
+        }
+
+        fillable[0] = 1L;
+        for (int shapes = 1; shapes < fillable.length; shapes++) {
+            int rest = shapes & (shapes - 1);
+            fillable[shapes] = fillable[rest] | fillable[rest] << sizes[Integer.numberOfTrailingZeros(shapes)];
+        }
+
+        long firstCol = 0L;
+        for (int row = 0; row < Placements.ROWS; row++) {
+            firstCol |= 1L << (row * Placements.COLS);
+        }
+        FIRST_COL = firstCol;
+        LAST_COL = firstCol << (Placements.COLS - 1);
+    }
+
+    private final long[][] live = new long[BoardState.MAX_DEPTH + 1][WORDS];
+
+    private BoardState board;
+    private AtomicBoolean stop;
+    private Consumer<BoardState> listener;
+    private long limit;
+    private long found;
+    private long nodes;
+    private SolverStats stats;
+    private Budget budget;
+    private SolveResult.Status abort;
+
+    /** Cleared only by tests, to measure what the dead region check saves. */
+    boolean pruneDeadRegions = true;
+
+    @Override
+    public boolean solve(CompiledChallenge challenge, BoardState board) {
+        if (!challenge.admits(board)) {
+            return false;
+        }
+
+        initialRows(challenge, board, live[0]);
+
+        return run(board, 1, null, null, true) > 0;
+    }
+
+    /**
+     * Search for a completion of the board, giving up once the budget ends.
+     *
+     * @param budget Polled every {@link #CHECK_INTERVAL} nodes.
+     * @return {@link SolveResult.Status#SOLVED} with the completion pushed onto
+     * the board, otherwise the reason the search ended with the board unchanged.
+     * @see Solver#solve
+     */
+    public SolveResult.Status solve(CompiledChallenge challenge, BoardState board, Budget budget) {
+        SolveResult.Status status = budget.check();
+
+        if (status != null) {
+            return status;
+        }
+
+        if (!challenge.admits(board)) {
+            return SolveResult.Status.NO_SOLUTION;
+        }
+
+        initialRows(challenge, board, live[0]);
+        this.budget = budget;
+        try {
+            if (run(board, 1, null, null, true) > 0) {
+                return SolveResult.Status.SOLVED;
+            }
+
+            return abort != null ? abort : SolveResult.Status.NO_SOLUTION;
+        } finally {
+            this.budget = null;
+        }
+    }
+
+    /**
+     * @return The number of search nodes expanded by the last call on this solver.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Count the work done by later calls on this solver.
+     *
+     * @param stats The stats to add to, or null to stop counting.
+     */
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public long enumerate(CompiledChallenge challenge, BoardState board, long limit, Consumer<BoardState> listener) {
+        if (!challenge.admits(board)) {
+            return 0;
+        }
+
+        initialRows(challenge, board, live[0]);
+
+        return run(board, limit, listener, null, false);
+    }
+
+    /**
+     * Complete a board given the rows still live on it.
+     *
+     * @param rows  The live rows for the board, as built by {@link #initialRows} and {@link #choose}.
+     * @param board The board to complete.
+     * @param stop  Checked at every node; the search gives up once it is set. May be null.
+     * @return True if a completion was found.
+     */
+    boolean solve(long[] rows, BoardState board, AtomicBoolean stop) {
+        System.arraycopy(rows, 0, live[0], 0, WORDS);
+
+        return run(board, 1, null, stop, true) > 0;
+    }
+
+    /**
+     * Enumerate the completions of a board given the rows still live on it.
+     *
+     * @param stop Checked at every node; the search gives up once it is set. May be null.
+     * @see Solver#enumerate
+     */
+    long enumerate(long[] rows, BoardState board, long limit, Consumer<BoardState> listener, AtomicBoolean stop) {
+        System.arraycopy(rows, 0, live[0], 0, WORDS);
+
+        return run(board, limit, listener, stop, false);
+    }
+
+    /**
+     * Search until limit completions are found.
+     *
+     * @param keep If true and a completion was found, leave the last one on the board.
+     */
+    private long run(BoardState board, long limit, Consumer<BoardState> listener, AtomicBoolean stop, boolean keep) {
+        if (limit <= 0) {
+            return 0;
+        }
+
+        int start = board.getDepth();
+
+        this.board = board;
+        this.stop = stop;
+        this.listener = listener;
+        this.limit = limit;
+        this.found = 0;
+        this.nodes = 0;
+        this.abort = null;
+        long started = stats == null ? 0 : System.nanoTime();
+        try {
+            search(0, board.getOccupied());
+            return found;
+        } finally {
+            if (stats != null) {
+                stats.search(System.nanoTime() - started);
+            }
+
+            if (!keep || found == 0) {
+                while (board.getDepth() > start) {
+                    board.undo();
+                }
+            }
+
+            this.board = null;
+            this.stop = null;
+            this.listener = null;
+        }
+    }
+
+    /**
+     * Fill rows with the placements that fit the board and the challenge.
+     */
+    static void initialRows(CompiledChallenge challenge, BoardState board, long[] rows) {
+        for (int w = 0; w < WORDS; w++) {
+            rows[w] = 0L;
+        }
+
+        for (int id : Placements.canonicalIds()) {
+            if (board.canPlace(id) && challenge.admits(id)) {
+                rows[id >>> 6] |= 1L << id;
+            }
+        }
+    }
+
+    /**
+     * Find the free cell with the fewest live rows.
+     *
+     * @return The cell, or -1 if some free cell has no live rows left.
+     */
+    static int selectCell(long[] rows, long occupied) {
+        int best = -1, min = Integer.MAX_VALUE;
+
+        for (long free = ~occupied & PLAYABLE; free != 0; free &= free - 1) {
+            int cell = Long.numberOfTrailingZeros(free);
+            int count = count(rows, cellRows[cell]);
+
+            if (count < min) {
+                if (count == 0) return -1;
+                best = cell;
+                min = count;
+                if (count == 1) break;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Flood fill the free cells of the board into connected regions.
+     *
+     * @param unplaced The shapes still to place, as a bitmask.
+     * @return True if some region cannot be covered exactly by a subset of the shapes.
+     */
+    static boolean hasDeadRegion(long occupied, int unplaced) {
+        long free = ~occupied & PLAYABLE;
+        long sums = fillable[unplaced];
+
+        while (free != 0) {
+            long region = free & -free, previous;
+
+            do {
+                previous = region;
+                region = (region
+                        | (region << 1) & ~FIRST_COL
+                        | (region >>> 1) & ~LAST_COL
+                        | region << Placements.COLS
+                        | region >>> Placements.COLS) & free;
+            } while (region != previous);
+
+            if ((sums >>> Long.bitCount(region) & 1) == 0) {
+                return true;
+            }
+
+            free &= ~region;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return The number of rows in both rows and set.
+     */
+    static int count(long[] rows, long[] set) {
+        int count = 0;
+
+        for (int w = 0; w < WORDS; w++) {
+            count += Long.bitCount(rows[w] & set[w]);
+        }
+
+        return count;
+    }
+
+    /**
+     * @return The only row in both rows and set, -1 if there is none, or -2 if there are several.
+     */
+    static int onlyRow(long[] rows, long[] set) {
+        int only = -1;
+
+        for (int w = 0; w < WORDS; w++) {
+            long both = rows[w] & set[w];
+
+            if (both == 0) continue;
+            if (only >= 0 || (both & (both - 1)) != 0) return -2;
+
+            only = (w << 6) + Long.numberOfTrailingZeros(both);
+        }
+
+        return only;
+    }
+
+    /**
+     * Find a placement the board is forced to take.
+     *
+     * @param cell A free cell, as chosen by {@link #selectCell}.
+     * @return The forced placement, -1 if there is none, or -2 if some unplaced
+     * shape has no live rows left.
+     */
+    static int forcedRow(long[] rows, int cell, int unplaced) {
+        int only = onlyRow(rows, cellRows[cell]);
+
+        if (only >= 0) {
+            return only;
+        }
+
+        for (int shapes = unplaced; shapes != 0; shapes &= shapes - 1) {
+            only = onlyRow(rows, shapeRows[Integer.numberOfTrailingZeros(shapes)]);
+
+            if (only != -2) {
+                return only >= 0 ? only : -2;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Store into next the rows still live after choosing placement id.
+     */
+    static void choose(long[] rows, int id, long[] next) {
+        long[] conflict = conflicts[id];
+
+        for (int w = 0; w < WORDS; w++) {
+            next[w] = rows[w] & ~conflict[w];
+        }
+    }
+
+    /**
+     * @return True once the search should stop, leaving the board as it is.
+     */
+    private boolean search(int depth, long occupied) {
+        int start = board.getDepth();
+
+        if (propagateAndBranch(depth, occupied)) {
+            return true;
+        }
+
+        while (board.getDepth() > start) {
+            board.undo();
+        }
+
+        return false;
+    }
+
+    /**
+     * Commit forced placements, then branch on the most constrained cell. The
+     * forced placements are left on the board for {@link #search} to undo.
+     */
+    private boolean propagateAndBranch(int depth, long occupied) {
+        long[] rows = live[depth];
+        int cell;
+
+        while (true) {
+            if ((~occupied & PLAYABLE) == 0) {
+                found++;
+                if (stats != null) {
+                    stats.solution();
+                }
+                if (listener != null) {
+                    listener.accept(board);
+                }
+                return found >= limit;
+            }
+
+            if (stop != null && stop.get()) {
+                return true;
+            }
+
+            if (pruneDeadRegions && hasDeadRegion(occupied, board.getUnplaced())) {
+                if (stats != null) {
+                    stats.prune(SolverStats.Prune.DEAD_REGION);
+                }
+                return false;
+            }
+
+            cell = selectCell(rows, occupied);
+
+            if (cell < 0) {
+                if (stats != null) {
+                    stats.prune(SolverStats.Prune.EMPTY_CELL);
+                }
+                return false;
+            }
+
+            int forced = forcedRow(rows, cell, board.getUnplaced());
+
+            if (forced == -1) {
+                break;
+            }
+
+            if (forced == -2) {
+                if (stats != null) {
+                    stats.prune(SolverStats.Prune.DEAD_SHAPE);
+                }
+                return false;
+            }
+
+            if (stats != null) {
+                stats.forced();
+            }
+
+            choose(rows, forced, rows);
+            board.place(forced);
+            occupied |= Placements.mask(forced);
+        }
+
+        nodes++;
+
+        if (budget != null && (nodes & (CHECK_INTERVAL - 1)) == 0 && (abort = budget.check()) != null) {
+            return true;
+        }
+
+        if (stats != null) {
+            stats.node(board.getDepth(), count(rows, cellRows[cell]));
+        }
+
+        for (int id : Placements.canonicalCandidates(cell)) {
+            if ((rows[id >>> 6] & (1L << id)) == 0) continue;
+
+            choose(rows, id, live[depth + 1]);
+            board.place(id);
+
+            if (search(depth + 1, occupied | Placements.mask(id))) {
+                return true;
+            }
+
+            board.undo();
+
+            if (stats != null) {
+                stats.backtrack();
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package arlob.iqfocus.solver;
+
+import java.time.Duration;
+
+/**
+ * A deadline and cancellation token for a search.
+ * <p>
+ * The search polls its budget every {@link BitsetSolver#CHECK_INTERVAL}
+ * nodes and gives up once the deadline has passed, {@link #cancel()} has been
+ * called, or the searching thread has been interrupted. Budgets may be
+ * cancelled from any thread.
+ */
+public final class Budget {
+    private final long deadline;
+    private final boolean timed;
+    private volatile boolean cancelled;
+
+    private Budget(boolean timed, long deadline) {
+        this.timed = timed;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return A budget with no deadline, which ends only when cancelled.
+     */
+    public static Budget unlimited() {
+        return new Budget(false, 0L);
+    }
+
+    /**
+     * @return A budget ending once the timeout has passed from now.
+     */
+    public static Budget of(Duration timeout) {
+        return new Budget(true, System.nanoTime() + timeout.toNanos());
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return timed && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * @return Why the search must stop, or null if it may go on.
+     */
+    SolveResult.Status check() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            return SolveResult.Status.CANCELLED;
+        }
+
+        return isExpired() ? SolveResult.Status.TIMED_OUT : null;
+    }
+}
@@ -0,0 +1,223 @@
+package arlob.iqfocus.solver;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
+
+import java.util.function.Consumer;
+
+/**
+ * Knuth's Algorithm X over a dancing links matrix.
+ * <p>
+ * There is one column per board cell and one per shape; only the free cells
+ * and unplaced shapes are linked into the header list. Each placement that fits
+ * the board and is consistent with the challenge becomes a row covering its
+ * cells and its shape. The search always branches on the column with the fewest
+ * remaining rows. Nodes live in parallel int arrays which are reused between
+ * calls.
+ */
+public class DancingLinks implements Solver {
+    private static final int ROOT = 0;
+    private static final int SHAPE_COLUMNS = 1 + Placements.CELLS;
+    private static final int HEADERS = SHAPE_COLUMNS + 10;
+
+    private static final int MAX_NODES;
+
+    static {
+        int nodes = HEADERS;
+        for (int id = 0; id < Placements.count(); id++) {
+            nodes += Long.bitCount(Placements.mask(id)) + 1;
+        }
+        MAX_NODES = nodes;
+    }
+
+    private final int[] left = new int[MAX_NODES];
+    private final int[] right = new int[MAX_NODES];
+    private final int[] up = new int[MAX_NODES];
+    private final int[] down = new int[MAX_NODES];
+    private final int[] column = new int[MAX_NODES];
+    private final int[] row = new int[MAX_NODES];
+    private final int[] size = new int[HEADERS];
+
+    private BoardState board;
+    private Consumer<BoardState> listener;
+    private long limit;
+    private long found;
+
+    @Override
+    public boolean solve(CompiledChallenge challenge, BoardState board) {
+        return run(challenge, board, 1, null, true) > 0;
+    }
+
+    @Override
+    public long enumerate(CompiledChallenge challenge, BoardState board, long limit, Consumer<BoardState> listener) {
+        return run(challenge, board, limit, listener, false);
+    }
+
+    /**
+     * Search until limit completions are found.
+     *
+     * @param keep If true and a completion was found, leave the last one on the board.
+     */
+    private long run(CompiledChallenge challenge, BoardState board, long limit, Consumer<BoardState> listener,
+                     boolean keep) {
+        if (limit <= 0 || !challenge.admits(board)) {
+            return 0;
+        }
+
+        build(challenge, board);
+
+        int start = board.getDepth();
+
+        this.board = board;
+        this.listener = listener;
+        this.limit = limit;
+        this.found = 0;
+        try {
+            search();
+            return found;
+        } finally {
+            if (!keep || found == 0) {
+                while (board.getDepth() > start) {
+                    board.undo();
+                }
+            }
+
+            this.board = null;
+            this.listener = null;
+        }
+    }
+
+    private void build(CompiledChallenge challenge, BoardState board) {
+        left[ROOT] = right[ROOT] = ROOT;
+
+        long free = ~board.getOccupied() & Placements.BOARD & ~Placements.FORBIDDEN;
+        int unplaced = board.getUnplaced();
+
+        for (int c = 1; c < HEADERS; c++) {
+            up[c] = down[c] = c;
+            column[c] = c;
+            size[c] = 0;
+
+            boolean primary = c < SHAPE_COLUMNS
+                    ? (free & (1L << (c - 1))) != 0
+                    : (unplaced & (1 << (c - SHAPE_COLUMNS))) != 0;
+
+            if (primary) {
+                left[c] = left[ROOT];
+                right[c] = ROOT;
+                right[left[ROOT]] = c;
+                left[ROOT] = c;
+            } else {
+                left[c] = right[c] = c;
+            }
+        }
+
+        int next = HEADERS;
+
+        for (int id : Placements.canonicalIds()) {
+            if (!board.canPlace(id) || !challenge.admits(id)) continue;
+
+            int first = next;
+            next = link(next, first, SHAPE_COLUMNS + Placements.shape(id), id);
+
+            for (long m = Placements.mask(id); m != 0; m &= m - 1) {
+                next = link(next, first, 1 + Long.numberOfTrailingZeros(m), id);
+            }
+        }
+    }
+
+    private int link(int node, int first, int c, int id) {
+        column[node] = c;
+        row[node] = id;
+
+        up[node] = up[c];
+        down[node] = c;
+        down[up[c]] = node;
+        up[c] = node;
+        size[c]++;
+
+        if (node == first) {
+            left[node] = right[node] = node;
+        } else {
+            left[node] = left[first];
+            right[node] = first;
+            right[left[first]] = node;
+            left[first] = node;
+        }
+
+        return node + 1;
+    }
+
+    /**
+     * @return True once the search should stop, leaving the board and links as they are.
+     */
+    private boolean search() {
+        if (right[ROOT] == ROOT) {
+            found++;
+            if (listener != null) {
+                listener.accept(board);
+            }
+            return found >= limit;
+        }
+
+        int best = right[ROOT];
+        for (int c = right[best]; c != ROOT; c = right[c]) {
+            if (size[c] < size[best]) {
+                best = c;
+            }
+        }
+
+        if (size[best] == 0) {
+            return false;
+        }
+
+        cover(best);
+
+        for (int r = down[best]; r != best; r = down[r]) {
+            board.place(row[r]);
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+
+            if (search()) {
+                return true;
+            }
+
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+            board.undo();
+        }
+
+        uncover(best);
+
+        return false;
+    }
+
+    private void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                up[down[j]] = j;
+                down[up[j]] = j;
+            }
+        }
+
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+}
@@ -0,0 +1,34 @@
+package arlob.iqfocus.solver;
+
+import java.util.function.Supplier;
+
+/**
+ * The available {@link Solver} implementations.
+ */
+public enum Engine {
+    DANCING_LINKS(DancingLinks::new),
+    BITSET(BitsetSolver::new),
+    PARALLEL(ParallelSolver::new);
+
+    private final Supplier<Solver> factory;
+    private final ThreadLocal<Solver> solvers;
+
+    Engine(Supplier<Solver> factory) {
+        this.factory = factory;
+        this.solvers = ThreadLocal.withInitial(factory);
+    }
+
+    /**
+     * @return A new solver of this kind.
+     */
+    public Solver newSolver() {
+        return factory.get();
+    }
+
+    /**
+     * @return A solver of this kind owned by the calling thread.
+     */
+    public Solver solver() {
+        return solvers.get();
+    }
+}
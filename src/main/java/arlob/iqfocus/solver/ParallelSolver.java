@@ -0,0 +1,230 @@
+package arlob.iqfocus.solver;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs the bitset search on a fork/join pool.
+ * <p>
+ * The top levels of the search tree, down to the cutoff depth, are split into
+ * one task per candidate placement for the most constrained cell. Below the
+ * cutoff each task finishes its subtree with a sequential {@link BitsetSolver}.
+ * Idle workers steal pending branches, and once any branch finds a completion
+ * every other branch stops at its next node.
+ * <p>
+ * Unlike the other engines, instances hold no per-call state and may be shared
+ * between threads. A solver built with its own pool must be closed to stop the
+ * pool's workers.
+ */
+public class ParallelSolver implements Solver, AutoCloseable {
+    public static final int DEFAULT_CUTOFF = 2;
+
+    private static final ThreadLocal<BitsetSolver> sequential = ThreadLocal.withInitial(BitsetSolver::new);
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int cutoff;
+
+    /**
+     * Use the common pool and the default cutoff depth.
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CUTOFF);
+    }
+
+    /**
+     * @param parallelism The number of worker threads in a dedicated pool,
+     *                    shut down by {@link #close()}.
+     * @param cutoff      The number of levels to split into tasks before searching sequentially.
+     */
+    public ParallelSolver(int parallelism, int cutoff) {
+        this(new ForkJoinPool(parallelism), true, cutoff);
+    }
+
+    /**
+     * @param pool   The pool to run on. It is left running by {@link #close()}.
+     * @param cutoff The number of levels to split into tasks before searching sequentially.
+     */
+    public ParallelSolver(ForkJoinPool pool, int cutoff) {
+        this(pool, false, cutoff);
+    }
+
+    private ParallelSolver(ForkJoinPool pool, boolean ownsPool, int cutoff) {
+        if (cutoff < 0) {
+            if (ownsPool) pool.shutdown();
+            throw new IllegalArgumentException("Invalid cutoff depth: " + cutoff);
+        }
+
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * Shut down the pool if this solver created it. Solvers on a pool passed
+     * in, or on the common pool, are unaffected.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public boolean solve(CompiledChallenge challenge, BoardState board) {
+        if (!challenge.admits(board)) {
+            return false;
+        }
+
+        long[] rows = new long[BitsetSolver.WORDS];
+        BitsetSolver.initialRows(challenge, board, rows);
+
+        Search search = new Search(false, 1, null);
+        pool.invoke(new Branch(search, board.copy(), rows, 0));
+
+        BoardState found = search.result.get();
+
+        if (found == null) {
+            return false;
+        }
+
+        for (int i = board.getDepth(); i < found.getDepth(); i++) {
+            board.place(found.getPlaced(i));
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The listener is called concurrently from the pool's worker threads.
+     */
+    @Override
+    public long enumerate(CompiledChallenge challenge, BoardState board, long limit, Consumer<BoardState> listener) {
+        if (limit <= 0 || !challenge.admits(board)) {
+            return 0;
+        }
+
+        long[] rows = new long[BitsetSolver.WORDS];
+        BitsetSolver.initialRows(challenge, board, rows);
+
+        Search search = new Search(true, limit, listener);
+        pool.invoke(new Branch(search, board.copy(), rows, 0));
+
+        return Math.min(search.count.get(), limit);
+    }
+
+    /**
+     * State shared by all branches of one call.
+     */
+    private static final class Search {
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicReference<BoardState> result = new AtomicReference<>();
+        final AtomicLong count = new AtomicLong();
+
+        final boolean enumerate;
+        final long limit;
+        final Consumer<BoardState> listener;
+
+        Search(boolean enumerate, long limit, Consumer<BoardState> listener) {
+            this.enumerate = enumerate;
+            this.limit = limit;
+            this.listener = listener;
+        }
+
+        void found(BoardState board) {
+            if (!enumerate) {
+                if (result.compareAndSet(null, board)) {
+                    stop.set(true);
+                }
+                return;
+            }
+
+            long n = count.incrementAndGet();
+
+            if (n <= limit && listener != null) {
+                listener.accept(board);
+            }
+
+            if (n >= limit) {
+                stop.set(true);
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class Branch extends RecursiveAction {
+        private final Search search;
+        private final BoardState board;
+        private final long[] rows;
+        private final int depth;
+
+        Branch(Search search, BoardState board, long[] rows, int depth) {
+            this.search = search;
+            this.board = board;
+            this.rows = rows;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.stop.get()) {
+                return;
+            }
+
+            if (depth >= cutoff) {
+                if (search.enumerate) {
+                    sequential.get().enumerate(rows, board, Long.MAX_VALUE, search::found, search.stop);
+                } else if (sequential.get().solve(rows, board, search.stop)) {
+                    search.found(board);
+                }
+                return;
+            }
+
+            long occupied = board.getOccupied();
+
+            if ((~occupied & BitsetSolver.PLAYABLE) == 0) {
+                search.found(board);
+                return;
+            }
+
+            if (BitsetSolver.hasDeadRegion(occupied, board.getUnplaced())) {
+                return;
+            }
+
+            int cell = BitsetSolver.selectCell(rows, occupied);
+
+            if (cell < 0) {
+                return;
+            }
+
+            List<Branch> branches = new ArrayList<>();
+
+            for (int id : Placements.canonicalCandidates(cell)) {
+                if ((rows[id >>> 6] & (1L << id)) == 0) continue;
+
+                long[] next = new long[BitsetSolver.WORDS];
+                BitsetSolver.choose(rows, id, next);
+
+                BoardState child = board.copy();
+                child.place(id);
+
+                branches.add(new Branch(search, child, next, depth + 1));
+            }
+
+            invokeAll(branches);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package arlob.iqfocus.solver;
+
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Every tiling of the board, grouped by the challenge it shows.
+ * <p>
+ * The table is built once by enumerating all tilings with the bitset engine
+ * and bucketing them by their 18-bit challenge code, so the solutions to any
+ * challenge are found by array lookups. Each tiling is stored as the two
+ * packed longs of its {@link Arrangement}. Building takes a few hundred
+ * milliseconds, paid by the first caller of {@link #getInstance()} unless
+ * {@link #preload()} has already built it in the background.
+ */
+public final class SolutionTable {
+    private static final int CHALLENGES = 1 << 18;
+
+    private static final class Holder {
+        static final SolutionTable INSTANCE = new SolutionTable();
+    }
+
+    /** Tilings for challenge code c are at indices offsets[c] .. offsets[c + 1] - 1. */
+    private final int[] offsets = new int[CHALLENGES + 1];
+    private final long[] low;
+    private final long[] high;
+
+    private SolutionTable() {
+        Tilings tilings = new Tilings();
+        int total = (int) new BitsetSolver().enumerate(CompiledChallenge.UNCONSTRAINED, new BoardState(),
+                Long.MAX_VALUE, tilings);
+
+        for (int i = 0; i < total; i++) {
+            offsets[tilings.codes[i] + 1]++;
+        }
+
+        for (int c = 0; c < CHALLENGES; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+
+        low = new long[total];
+        high = new long[total];
+
+        int[] next = new int[CHALLENGES];
+        System.arraycopy(offsets, 0, next, 0, CHALLENGES);
+
+        for (int i = 0; i < total; i++) {
+            int j = next[tilings.codes[i]]++;
+
+            low[j] = tilings.low[i];
+            high[j] = tilings.high[i];
+        }
+    }
+
+    /**
+     * Collects the tilings in enumeration order, to be bucketed afterwards.
+     */
+    private static final class Tilings implements Consumer<BoardState> {
+        int[] codes = new int[1024];
+        long[] low = new long[1024];
+        long[] high = new long[1024];
+        int size;
+
+        @Override
+        public void accept(BoardState board) {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, 2 * size);
+                low = Arrays.copyOf(low, 2 * size);
+                high = Arrays.copyOf(high, 2 * size);
+            }
+
+            Arrangement tiling = Arrangement.of(board);
+
+            codes[size] = CompiledChallenge.shownBy(board).code();
+            low[size] = tiling.getLow();
+            high[size] = tiling.getHigh();
+            size++;
+        }
+    }
+
+    /**
+     * @return The shared table, built on first use.
+     */
+    public static SolutionTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Start building the shared table on a background thread, so that the
+     * first lookup does not wait for it. Callers of {@link #getInstance()}
+     * during the build wait for it to finish.
+     */
+    public static void preload() {
+        Thread thread = new Thread(SolutionTable::getInstance, "solution-table");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return The number of tilings of the board.
+     */
+    public int size() {
+        return low.length;
+    }
+
+    /**
+     * @return The number of solutions to the challenge.
+     */
+    public int count(CompiledChallenge challenge) {
+        return offsets[challenge.code() + 1] - offsets[challenge.code()];
+    }
+
+    /**
+     * @param challenge The challenge.
+     * @param k         Which solution, from 0 to {@link #count} - 1.
+     * @return The solution, with its pieces in canonical orientations.
+     */
+    public Arrangement get(CompiledChallenge challenge, int k) {
+        if (k < 0 || k >= count(challenge)) {
+            throw new IndexOutOfBoundsException("Challenge " + challenge + " has no solution " + k);
+        }
+
+        int i = offsets[challenge.code()] + k;
+
+        return Arrangement.of(low[i], high[i]);
+    }
+
+    /**
+     * Place the pieces of one of a challenge's solutions on a board, in shape order.
+     *
+     * @param challenge The challenge.
+     * @param k         Which solution, from 0 to {@link #count} - 1.
+     * @param board     An empty board.
+     */
+    public void place(CompiledChallenge challenge, int k, BoardState board) {
+        get(challenge, k).placeOn(board);
+    }
+}
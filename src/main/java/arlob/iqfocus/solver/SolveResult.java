@@ -0,0 +1,46 @@
+package arlob.iqfocus.solver;
+
+/**
+ * The outcome of a search run under a {@link Budget}.
+ */
+public final class SolveResult {
+    public enum Status {
+        SOLVED,
+        NO_SOLUTION,
+        TIMED_OUT,
+        CANCELLED
+    }
+
+    private final Status status;
+    private final String solution;
+    private final SolverStats stats;
+
+    public SolveResult(Status status, String solution, SolverStats stats) {
+        this.status = status;
+        this.solution = solution;
+        this.stats = stats;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The canonical solution if one was found, otherwise the empty string.
+     */
+    public String getSolution() {
+        return solution;
+    }
+
+    /**
+     * @return The work done by the search, up to the point it stopped.
+     */
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return status + (solution.isEmpty() ? "" : " " + solution) + " (" + stats + ")";
+    }
+}
@@ -0,0 +1,42 @@
+package arlob.iqfocus.solver;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+
+import java.util.function.Consumer;
+
+/**
+ * A search engine which completes a partly filled board so that the pieces
+ * shown in the central window match a challenge.
+ * <p>
+ * Implementations keep scratch state between calls and are not thread-safe;
+ * use one instance per thread.
+ */
+public interface Solver {
+    /**
+     * Search for a completion of the board.
+     *
+     * @param challenge The challenge the completion must be consistent with.
+     * @param board     The pieces already placed. If a completion is found the
+     *                  remaining pieces are pushed onto it, otherwise it is left
+     *                  unchanged.
+     * @return True if a completion was found, false if there is none or a
+     * piece already placed contradicts the challenge.
+     */
+    boolean solve(CompiledChallenge challenge, BoardState board);
+
+    /**
+     * Enumerate the completions of the board, stopping early once limit of
+     * them have been found. Completions differing only in the orientation of a
+     * symmetric piece are reported once.
+     *
+     * @param challenge The challenge the completions must be consistent with.
+     * @param board     The pieces already placed. It is left unchanged.
+     * @param limit     The maximum number of completions to find.
+     * @param listener  Called with the board holding each completion as it is
+     *                  found, or null. The board must not be modified or kept.
+     * @return The number of completions found, at most limit, and 0 if a
+     * piece already placed contradicts the challenge.
+     */
+    long enumerate(CompiledChallenge challenge, BoardState board, long limit, Consumer<BoardState> listener);
+}
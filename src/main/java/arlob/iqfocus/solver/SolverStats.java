@@ -0,0 +1,168 @@
+package arlob.iqfocus.solver;
+
+import arlob.iqfocus.classes.BoardState;
+
+/**
+ * Counters describing the work done by searches.
+ * <p>
+ * Attach an instance to a solver with {@link BitsetSolver#setStats}; it then
+ * accumulates over every call until {@link #reset()}. Solvers with no stats
+ * attached skip the counting. Instances are not thread-safe.
+ */
+public final class SolverStats {
+    /**
+     * Why a node was abandoned without branching.
+     */
+    public enum Prune {
+        /** A free cell had no placement left. */
+        EMPTY_CELL,
+        /** The free cells split into a region no subset of the pieces fits. */
+        DEAD_REGION,
+        /** An unplaced shape had no placement left. */
+        DEAD_SHAPE
+    }
+
+    private long searches;
+    private long nodes;
+    private long candidates;
+    private long backtracks;
+    private long forced;
+    private long solutions;
+    private long nanos;
+    private final long[] prunes = new long[Prune.values().length];
+    private final long[] depthNodes = new long[BoardState.MAX_DEPTH + 1];
+    private final long[] depthCandidates = new long[BoardState.MAX_DEPTH + 1];
+
+    void search(long nanos) {
+        this.searches++;
+        this.nanos += nanos;
+    }
+
+    void node(int depth, int candidates) {
+        this.nodes++;
+        this.candidates += candidates;
+        this.depthNodes[depth]++;
+        this.depthCandidates[depth] += candidates;
+    }
+
+    void backtrack() {
+        backtracks++;
+    }
+
+    void forced() {
+        forced++;
+    }
+
+    void solution() {
+        solutions++;
+    }
+
+    void prune(Prune reason) {
+        prunes[reason.ordinal()]++;
+    }
+
+    public void reset() {
+        searches = nodes = candidates = backtracks = forced = solutions = nanos = 0;
+
+        for (int i = 0; i < prunes.length; i++) {
+            prunes[i] = 0;
+        }
+
+        for (int d = 0; d <= BoardState.MAX_DEPTH; d++) {
+            depthNodes[d] = depthCandidates[d] = 0;
+        }
+    }
+
+    /**
+     * @return The number of solve or enumerate calls counted.
+     */
+    public long getSearches() {
+        return searches;
+    }
+
+    /**
+     * @return The number of nodes the search branched at.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return The number of placements tried at branching nodes.
+     */
+    public long getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return The number of placements tried at branching nodes and then taken back.
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * @return The number of placements committed without branching.
+     */
+    public long getForced() {
+        return forced;
+    }
+
+    /**
+     * @return The number of completed boards reached.
+     */
+    public long getSolutions() {
+        return solutions;
+    }
+
+    public long getPrunes(Prune reason) {
+        return prunes[reason.ordinal()];
+    }
+
+    /**
+     * @return The number of branching nodes with the given number of pieces on the board.
+     */
+    public long getNodes(int depth) {
+        return depthNodes[depth];
+    }
+
+    /**
+     * @return The mean number of placements tried at branching nodes with the
+     * given number of pieces on the board, or 0 if there were none.
+     */
+    public double getBranchingFactor(int depth) {
+        return depthNodes[depth] == 0 ? 0 : (double) depthCandidates[depth] / depthNodes[depth];
+    }
+
+    /**
+     * @return The wall time spent in searches, in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("searches=").append(searches)
+                .append(" nodes=").append(nodes)
+                .append(" candidates=").append(candidates)
+                .append(" backtracks=").append(backtracks)
+                .append(" forced=").append(forced)
+                .append(" solutions=").append(solutions)
+                .append(" ms=").append(nanos / 1_000_000.0);
+
+        for (Prune reason : Prune.values()) {
+            sb.append(' ').append(reason.name().toLowerCase()).append('=').append(getPrunes(reason));
+        }
+
+        sb.append(" branching=[");
+        for (int d = 0; d <= BoardState.MAX_DEPTH; d++) {
+            if (depthNodes[d] == 0) continue;
+            sb.append(' ').append(d).append(':').append(String.format("%.2f", getBranchingFactor(d)));
+        }
+
+        return sb.append(" ]").toString();
+    }
+}
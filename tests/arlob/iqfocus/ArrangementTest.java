@@ -0,0 +1,83 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.Placements;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static arlob.iqfocus.TestUtility.OVERLAP;
+import static org.junit.Assert.assertTrue;
+
+public class ArrangementTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(2000);
+
+    @Test
+    public void roundTrip() {
+        for (Solution solution : SOLUTIONS) {
+            for (int j = 0; j <= solution.placement.length(); j += 4) {
+                String placement = solution.placement.substring(0, j);
+                Arrangement arrangement = Arrangement.of(placement);
+                Arrangement packed = Arrangement.of(arrangement.getLow(), arrangement.getHigh());
+
+                assertTrue("Expected " + placement + " but got " + arrangement,
+                        arrangement.toString().equals(placement) && arrangement.size() == j / 4);
+                assertTrue("Repacking " + placement + " gave " + packed,
+                        packed.equals(arrangement) && packed.hashCode() == arrangement.hashCode()
+                                && packed.compareTo(arrangement) == 0);
+                assertTrue("Board for " + placement + " gave a different arrangement",
+                        Arrangement.of(new BoardState(placement)).equals(arrangement));
+            }
+        }
+    }
+
+    @Test
+    public void canonical() {
+        for (Solution solution : SOLUTIONS) {
+            Arrangement arrangement = Arrangement.of(solution.placement).canonical();
+
+            for (int shape = 0; shape < 10; shape++) {
+                int id = arrangement.get(shape);
+                assertTrue("Piece " + Placements.toString(id) + " of " + solution.placement + " is not canonical",
+                        Placements.isCanonical(id));
+            }
+            assertTrue("Canonical form of " + solution.placement + " covers different cells",
+                    arrangement.getOccupied() == Arrangement.of(solution.placement).getOccupied());
+        }
+    }
+
+    @Test
+    public void without() {
+        for (Solution solution : SOLUTIONS) {
+            Arrangement full = Arrangement.of(solution.placement);
+
+            for (int shape = 0; shape < 10; shape++) {
+                int id = full.get(shape);
+                Arrangement removed = full.without(shape);
+
+                assertTrue("Removing " + (char) ('a' + shape) + " from " + full + " gave " + removed,
+                        !removed.contains(shape) && removed.size() == 9
+                                && removed.getOccupied() == (full.getOccupied() & ~Placements.mask(id))
+                                && removed.with(id).equals(full));
+            }
+            assertTrue("Removing every shape from " + full + " did not leave it empty",
+                    full.without(0).without(1).without(2).without(3).without(4)
+                            .without(5).without(6).without(7).without(8).without(9) == Arrangement.EMPTY);
+        }
+    }
+
+    @Test
+    public void rejectsInvalid() {
+        for (String placement : new String[] { OVERLAP[0], "a000a100", "a0", "k000", "a800" }) {
+            try {
+                Arrangement.of(placement);
+                assertTrue("Expected " + placement + " to be rejected", false);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.solver.Engine;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class BatchSolverTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    private static String input() {
+        StringBuilder sb = new StringBuilder();
+        for (Solution solution : SOLUTIONS) {
+            sb.append(solution.objective).append('\n');
+        }
+        return sb.append("\nRRRRRRRRX\n").toString();
+    }
+
+    private static boolean matches(Solution solution, String line) {
+        for (String placement : solution.placements) {
+            if (line.equals(solution.objective + "\t" + placement)) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void ordered() throws Exception {
+        StringWriter out = new StringWriter();
+        BatchSolver.Summary summary = new BatchSolver(4, true, null).run(new StringReader(input()), out);
+        String[] lines = out.toString().split("\n", -1);
+
+        assertTrue("Expected " + (SOLUTIONS.length + 2) + " lines but got " + lines.length,
+                lines.length == SOLUTIONS.length + 2);
+        for (int i = 0; i < SOLUTIONS.length; i++) {
+            assertTrue("Line " + i + " was " + lines[i] + ", expected a solution to " + SOLUTIONS[i].objective,
+                    matches(SOLUTIONS[i], lines[i]));
+        }
+        assertTrue("Expected the malformed challenge last but got " + lines[SOLUTIONS.length],
+                lines[SOLUTIONS.length].equals("RRRRRRRRX\t"));
+        assertTrue("Expected " + (SOLUTIONS.length + 1) + " challenges with 1 invalid but got " + summary,
+                summary.getCount() == SOLUTIONS.length + 1 && summary.getInvalid() == 1);
+        assertTrue("Expected ordered percentiles in " + summary,
+                summary.getLatency(50) <= summary.getLatency(99) && summary.getLatency(99) <= summary.getLatency(100));
+    }
+
+    @Test
+    public void latencyHistogram() {
+        long[] histogram = new long[1024];
+        long max = 0;
+        for (long nanos = 1; nanos <= 1_000_000; nanos++) {
+            histogram[BatchSolver.bucket(nanos)]++;
+            max = Math.max(max, nanos);
+        }
+        BatchSolver.Summary summary = new BatchSolver.Summary(histogram, 1_000_000, max, 0, 1);
+
+        for (double p : new double[] { 1, 50, 90, 99, 99.9 }) {
+            long exact = (long) Math.ceil(p * 10_000);
+            long latency = summary.getLatency(p);
+            assertTrue("Expected p" + p + " within 1/16 above " + exact + " but got " + latency,
+                    latency >= exact && latency <= exact + exact / 16);
+        }
+        assertTrue("Expected the exact maximum but got " + summary.getLatency(100), summary.getLatency(100) == max);
+    }
+
+    @Test
+    public void unordered() throws Exception {
+        StringWriter out = new StringWriter();
+        new BatchSolver(3, false, Engine.BITSET).run(new StringReader(input()), out);
+        Set<String> lines = new HashSet<>();
+        for (String line : out.toString().split("\n")) {
+            lines.add(line);
+        }
+
+        for (Solution solution : SOLUTIONS) {
+            boolean found = false;
+            for (String line : lines) {
+                found |= matches(solution, line);
+            }
+            assertTrue("Expected a solution to " + solution.objective + " in the output", found);
+        }
+    }
+}
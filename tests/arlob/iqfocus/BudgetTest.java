@@ -0,0 +1,86 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.solver.Budget;
+import arlob.iqfocus.solver.SolveResult;
+
+import java.time.Duration;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class BudgetTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    private static final String UNSOLVABLE = "BBBWWWRRR";
+
+    /* The unsolvable challenge taking the most search nodes, a few hundred */
+    private static final String HARD_UNSOLVABLE = "BBBRRRWRR";
+
+    @Test
+    public void solvesWithinBudget() {
+        for (Solution solution : SOLUTIONS) {
+            SolveResult result = FocusGame.getSolution("", solution.objective, Budget.of(Duration.ofSeconds(10)));
+            assertTrue("Expected one of " + solution.placements + " for " + solution.objective + " but got " + result,
+                    result.getStatus() == SolveResult.Status.SOLVED && solution.placements.contains(result.getSolution()));
+        }
+
+        SolveResult result = FocusGame.getSolution("", UNSOLVABLE, Budget.unlimited());
+        assertTrue("Expected no solution for " + UNSOLVABLE + " but got " + result,
+                result.getStatus() == SolveResult.Status.NO_SOLUTION && result.getSolution().isEmpty()
+                        && result.getStats().getNodes() > 0);
+
+        result = FocusGame.getSolution("j010", "GRRRRRRRR", Budget.unlimited());
+        assertTrue("Expected no solution when j010 contradicts GRRRRRRRR but got " + result,
+                result.getStatus() == SolveResult.Status.NO_SOLUTION && result.getSolution().isEmpty());
+    }
+
+    @Test
+    public void timesOutMidSearch() {
+        long full = FocusGame.getSolution("", HARD_UNSOLVABLE, Budget.unlimited()).getStats().getNodes();
+
+        /* Sweep the deadline until one passes after the search starts but before it ends */
+        for (long nanos = 1000; nanos < 100_000_000; nanos += nanos / 8) {
+            SolveResult result = FocusGame.getSolution("", HARD_UNSOLVABLE, Budget.of(Duration.ofNanos(nanos)));
+
+            if (result.getStatus() == SolveResult.Status.NO_SOLUTION) break;
+
+            assertTrue("Expected a timeout but got " + result,
+                    result.getStatus() == SolveResult.Status.TIMED_OUT && result.getSolution().isEmpty());
+
+            long nodes = result.getStats().getNodes();
+            if (nodes > 0) {
+                assertTrue("Expected partial stats, fewer than " + full + " nodes, but got " + result,
+                        nodes < full && result.getStats().getSearches() == 1);
+                return;
+            }
+        }
+
+        assertTrue("No deadline expired part way through the search", false);
+    }
+
+    @Test
+    public void stopsWhenBudgetEnds() {
+        SolveResult result = FocusGame.getSolution("", SOLUTIONS[0].objective, Budget.of(Duration.ZERO));
+        assertTrue("Expected a timeout but got " + result,
+                result.getStatus() == SolveResult.Status.TIMED_OUT && result.getSolution().isEmpty());
+
+        Budget budget = Budget.unlimited();
+        budget.cancel();
+        result = FocusGame.getSolution("", SOLUTIONS[0].objective, budget);
+        assertTrue("Expected cancellation but got " + result, result.getStatus() == SolveResult.Status.CANCELLED);
+
+        Thread.currentThread().interrupt();
+        try {
+            result = FocusGame.getSolution("", SOLUTIONS[0].objective, Budget.unlimited());
+            assertTrue("Expected cancellation on interrupt but got " + result,
+                    result.getStatus() == SolveResult.Status.CANCELLED);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertTrue;
+
+public class ChallengeGeneratorTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    private void test(Solution solution) {
+        long count = FocusGame.countSolutions(solution.objective, 2);
+        assertTrue("Expected a unique solution for objective " + solution.objective + " but got " + count,
+                count == 1);
+        String out = FocusGame.getSolution(solution.objective);
+        assertTrue("Expected " + solution.placement + " for objective " + solution.objective + " but got " + out,
+                out.equals(solution.placement));
+    }
+
+    @Test
+    public void single() {
+        ChallengeGenerator generator = new ChallengeGenerator(42);
+        for (ChallengeGenerator.Difficulty difficulty : ChallengeGenerator.Difficulty.values()) {
+            test(generator.next(difficulty));
+        }
+        test(generator.next(null));
+    }
+
+    @Test
+    public void emptyBand() {
+        ChallengeGenerator generator = new ChallengeGenerator(42);
+        Solution solution = generator.next(1_000_000, Long.MAX_VALUE);
+        assertTrue("Expected no challenge needing a million nodes but got " + solution, solution == null);
+        test(generator.next(null));
+    }
+
+    @Test
+    public void batch() {
+        List<Solution> solutions = new ChallengeGenerator(42).generate(20, null, 2);
+        assertTrue("Expected 20 challenges but got " + solutions.size(), solutions.size() == 20);
+
+        Set<String> objectives = new HashSet<>();
+        for (Solution solution : solutions) {
+            assertTrue("Duplicate objective " + solution.objective, objectives.add(solution.objective));
+            test(solution);
+        }
+    }
+}
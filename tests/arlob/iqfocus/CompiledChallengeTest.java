@@ -0,0 +1,44 @@
+package arlob.iqfocus;
+
+import org.junit.Test;
+
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledChallengeTest {
+    @Test
+    public void roundTrip() {
+        for (Solution solution : SOLUTIONS) {
+            CompiledChallenge compiled = CompiledChallenge.of(solution.objective);
+            assertTrue("Expected " + solution.objective + " but got " + compiled,
+                    compiled.toString().equals(solution.objective));
+            assertTrue("Expected cached instance for " + solution.objective,
+                    CompiledChallenge.of(compiled.code()) == compiled);
+        }
+    }
+
+    @Test
+    public void admitsSolutions() {
+        for (Solution solution : SOLUTIONS) {
+            CompiledChallenge compiled = CompiledChallenge.of(solution.objective);
+            CompiledChallenge other = CompiledChallenge.of(compiled.code() ^ 1);
+
+            boolean rejected = false;
+            for (int i = 0; i < solution.placement.length(); i += 4) {
+                int id = Placements.idOf(solution.placement.substring(i, i + 4));
+                assertTrue("Objective " + solution.objective + " rejects " + Placements.toString(id),
+                        compiled.admits(id));
+                rejected |= !other.admits(id);
+            }
+            assertTrue("Objective " + other + " admits solution " + solution.placement, rejected);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badChallenge() {
+        CompiledChallenge.of("RRRBWBBRE");
+    }
+}
@@ -0,0 +1,63 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.solver.Engine;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class CountSolutionsTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    @Test
+    public void unique() {
+        for (Solution solution : SOLUTIONS) {
+            long count = FocusGame.countSolutions(solution.objective, 10);
+            assertTrue("Expected " + solution.placements.size() + " solutions for objective " +
+                    solution.objective + " but got " + count, count == solution.placements.size());
+        }
+    }
+
+    @Test
+    public void streamed() {
+        for (Solution solution : SOLUTIONS) {
+            Set<String> out = new HashSet<>();
+            long count = FocusGame.forEachSolution(solution.objective, 10, out::add);
+            assertTrue("Expected " + count + " distinct solutions for objective " + solution.objective +
+                    " but got " + out, out.size() == count);
+            assertTrue("Expected " + solution.placement + " among solutions for objective " +
+                    solution.objective + " but got " + out, out.contains(solution.placement));
+        }
+    }
+
+    @Test
+    public void limit() {
+        // Challenges with a single colour have many solutions
+        assertTrue(FocusGame.countSolutions("WWWWWWWWW", 0) == 0);
+        assertTrue(FocusGame.countSolutions("WWWWWWWWW", 1) == 1);
+        assertTrue(FocusGame.countSolutions("WWWWWWWWW", 5) <= 5);
+    }
+
+    @Test
+    public void enginesAgree() {
+        String[] challenges = { "RRRRRRRRR", "GGGGGGGGG", "BBBBBBBBB", "WWWWWWWWW", "RWBWWWBWR", "BWRBRWBWR" };
+        for (String challenge : challenges) {
+            CompiledChallenge compiled = CompiledChallenge.of(challenge);
+            long expected = Engine.DANCING_LINKS.solver().enumerate(compiled, new BoardState(), Long.MAX_VALUE, null);
+            for (Engine engine : Engine.values()) {
+                long count = engine.solver().enumerate(compiled, new BoardState(), Long.MAX_VALUE, null);
+                assertTrue(engine + " found " + count + " solutions for objective " + challenge +
+                        " but expected " + expected, count == expected);
+            }
+        }
+    }
+}
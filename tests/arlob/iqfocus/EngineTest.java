@@ -0,0 +1,75 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.solver.Engine;
+import arlob.iqfocus.solver.ParallelSolver;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class EngineTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    private static Set<String> pieces(String placement) {
+        Set<String> set = new TreeSet<>();
+        for (int i = 0; i < placement.length(); i += 4) {
+            set.add(placement.substring(i, i + 4));
+        }
+        return set;
+    }
+
+    private void test(Engine engine) {
+        for (Solution solution : SOLUTIONS) {
+            String out = FocusGame.getSolution(solution.objective, engine);
+            boolean found = false;
+            for (String expected : solution.placements) {
+                found |= pieces(expected).equals(pieces(out));
+            }
+            assertTrue(engine + " returned " + out + " for objective " + solution.objective +
+                    ", expected one of " + solution.placements, found);
+        }
+    }
+
+    @Test
+    public void dancingLinks() {
+        test(Engine.DANCING_LINKS);
+    }
+
+    @Test
+    public void bitset() {
+        test(Engine.BITSET);
+    }
+
+    @Test
+    public void parallel() {
+        test(Engine.PARALLEL);
+    }
+
+    @Test
+    public void dedicatedPoolClosed() {
+        ParallelSolver closed;
+        try (ParallelSolver solver = new ParallelSolver(2, 1)) {
+            closed = solver;
+            for (Solution solution : SOLUTIONS) {
+                BoardState board = new BoardState();
+                assertTrue("Dedicated pool found no solution for " + solution.objective,
+                        solver.solve(CompiledChallenge.of(solution.objective), board) && board.getDepth() == 10);
+            }
+        }
+
+        try {
+            closed.solve(CompiledChallenge.of(SOLUTIONS[0].objective), new BoardState());
+            assertTrue("Expected a closed solver to reject work", false);
+        } catch (java.util.concurrent.RejectedExecutionException expected) {
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.Placements;
+
+import java.util.Iterator;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class HintServiceTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    @Test
+    public void nextPiece() throws Exception {
+        try (HintService hints = new HintService()) {
+            for (int i = 0; i < 10; i++) {
+                Solution solution = SOLUTIONS[i];
+                String placed = solution.placement.substring(0, 4 * (i % 10));
+                HintService.Hint hint = hints.hint(solution.objective, placed).get();
+                assertTrue("Expected a piece of " + solution.placement + " but got " + hint,
+                        hint.getPlacement() != null && solution.placement.contains(hint.getPlacement())
+                                && !placed.contains(hint.getPlacement()));
+                assertTrue("Expected no inconsistent pieces but got " + hint, hint.getInconsistent().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void inconsistent() {
+        try (HintService hints = new HintService()) {
+            // a000 is correct for the first solution, b100 is not
+            HintService.Hint hint = hints.getHint(SOLUTIONS[0].objective, "a000b100");
+            assertTrue("Expected b100 to be flagged but got " + hint,
+                    hint.getInconsistent().size() == 1 && hint.getInconsistent().contains("b100"));
+            assertTrue("Expected b013 but got " + hint, hint.getPlacement().equals("b013"));
+        }
+    }
+
+    @Test
+    public void severalSolutions() {
+        try (HintService hints = new HintService()) {
+            for (Solution solution : SOLUTIONS) {
+                if (solution.placements.size() < 2) continue;
+
+                Iterator<String> it = solution.placements.iterator();
+                Arrangement first = Arrangement.of(it.next());
+                Arrangement second = Arrangement.of(it.next());
+
+                // one piece from each solution: neither is closer, and neither rules out both
+                for (int x = 0; x < 10; x++) {
+                    for (int y = x + 1; y < 10; y++) {
+                        int a = first.get(x), b = second.get(y);
+                        if (a == second.get(x) || b == first.get(y) || (Placements.mask(a) & Placements.mask(b)) != 0) continue;
+
+                        String placed = Placements.toString(a) + Placements.toString(b);
+                        HintService.Hint hint = hints.getHint(solution.objective, placed);
+                        assertTrue("Expected nothing flagged for " + placed + " under " + solution.objective + " but got " + hint,
+                                hint.getInconsistent().isEmpty() && hint.getPlacement() != null);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void solved() {
+        try (HintService hints = new HintService()) {
+            HintService.Hint hint = hints.getHint(SOLUTIONS[0].objective, SOLUTIONS[0].placement);
+            assertTrue("Expected no hint but got " + hint, hint.getPlacement() == null);
+        }
+    }
+}
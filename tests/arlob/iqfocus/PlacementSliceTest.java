@@ -0,0 +1,60 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.nio.charset.StandardCharsets;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static arlob.iqfocus.TestUtility.*;
+import static org.junit.Assert.assertTrue;
+
+public class PlacementSliceTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(2000);
+
+    private static final String PREFIX = "x0y1";
+    private static final String SUFFIX = "zz";
+
+    private void test(String in) {
+        StringBuilder chars = new StringBuilder(PREFIX).append(in).append(SUFFIX);
+        byte[] bytes = chars.toString().getBytes(StandardCharsets.US_ASCII);
+        int offset = PREFIX.length();
+
+        boolean wellFormed = FocusGame.isPlacementStringWellFormed(in);
+        boolean valid = FocusGame.isPlacementStringValid(in);
+
+        assertTrue("Input was '" + in + "', expected well-formed " + wellFormed + " for chars",
+                FocusGame.isPlacementStringWellFormed(chars, offset, in.length()) == wellFormed);
+        assertTrue("Input was '" + in + "', expected well-formed " + wellFormed + " for bytes",
+                FocusGame.isPlacementStringWellFormed(bytes, offset, in.length()) == wellFormed);
+        assertTrue("Input was '" + in + "', expected valid " + valid + " for chars",
+                FocusGame.isPlacementStringValid(chars, offset, in.length()) == valid);
+        assertTrue("Input was '" + in + "', expected valid " + valid + " for bytes",
+                FocusGame.isPlacementStringValid(bytes, offset, in.length()) == valid);
+    }
+
+    @Test
+    public void matchesStrings() {
+        test("");
+        for (int i = 0; i < SOLUTIONS.length; i++) {
+            String placement = SOLUTIONS[i].placement;
+            for (int j = 4; j <= placement.length(); j += 4) {
+                test(placement.substring(0, j));
+                test(placement.substring(0, j - 4) + BAD_PIECES[i % BAD_PIECES.length]);
+                test(placement.substring(0, j - 4) + OFF_BOARD_1[i % OFF_BOARD_1.length]);
+            }
+            test(placement + placement.substring(0, 4));
+            test(placement.substring(0, 8) + "a");
+        }
+        for (String overlap : OVERLAP) {
+            test(overlap);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() {
+        FocusGame.isPlacementStringValid("a000b013", 4, 8);
+    }
+}
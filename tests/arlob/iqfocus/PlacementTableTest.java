@@ -0,0 +1,85 @@
+package arlob.iqfocus;
+
+import org.junit.Test;
+
+import arlob.iqfocus.classes.Placements;
+import arlob.iqfocus.classes.State;
+
+import static org.junit.Assert.assertTrue;
+
+public class PlacementTableTest {
+    @Test
+    public void matchesValidity() {
+        for (char shape = 'a'; shape <= 'j'; shape++) {
+            for (int col = 0; col < 9; col++) {
+                for (int row = 0; row < 5; row++) {
+                    for (int ori = 0; ori < 4; ori++) {
+                        String placement = "" + shape + col + row + ori;
+                        int id = Placements.idOf(placement);
+                        boolean valid = FocusGame.isPlacementStringValid(placement);
+
+                        assertTrue("Placement " + placement + " has id " + id + " but validity " + valid,
+                                (id >= 0) == valid);
+                        if (id >= 0) {
+                            assertTrue("Expected " + placement + " but got " + Placements.toString(id),
+                                    Placements.toString(id).equals(placement));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void candidatesCoverCell() {
+        for (int cell = 0; cell < Placements.CELLS; cell++) {
+            for (int id : Placements.candidates(cell)) {
+                assertTrue("Placement " + Placements.toString(id) + " does not cover cell " + cell,
+                        (Placements.mask(id) & (1L << cell)) != 0);
+            }
+        }
+    }
+
+    @Test
+    public void canonicalCandidates() {
+        int total = 0;
+        for (int id = 0; id < Placements.count(); id++) {
+            if (Placements.isCanonical(id)) total++;
+        }
+        assertTrue("Expected " + total + " canonical ids but got " + Placements.canonicalIds().length,
+                Placements.canonicalIds().length == total);
+        for (int id : Placements.canonicalIds()) {
+            assertTrue("Placement " + Placements.toString(id) + " is not canonical", Placements.isCanonical(id));
+        }
+
+        for (int cell = 0; cell < Placements.CELLS; cell++) {
+            int expected = 0;
+            for (int id : Placements.candidates(cell)) {
+                if (Placements.isCanonical(id)) expected++;
+            }
+            int[] canonical = Placements.canonicalCandidates(cell);
+            assertTrue("Cell " + cell + " has " + canonical.length + " canonical candidates, expected " + expected,
+                    canonical.length == expected);
+            for (int id : canonical) {
+                assertTrue("Placement " + Placements.toString(id) + " is not canonical or misses cell " + cell,
+                        Placements.isCanonical(id) && (Placements.mask(id) & (1L << cell)) != 0);
+            }
+        }
+    }
+
+    @Test
+    public void canonicalOrientations() {
+        for (int id = 0; id < Placements.count(); id++) {
+            String placement = Placements.toString(id);
+            int canonical = Placements.canonical(id);
+            boolean symmetric = (placement.charAt(0) == 'f' || placement.charAt(0) == 'g') && placement.charAt(3) >= '2';
+
+            assertTrue("Placement " + placement + " has canonical form " + Placements.toString(canonical),
+                    Placements.isCanonical(id) != symmetric && Placements.isCanonical(canonical));
+            for (State colour : new State[] { State.RED, State.GREEN, State.BLUE, State.WHITE }) {
+                assertTrue("Placement " + placement + " differs from " + Placements.toString(canonical) + " in " + colour,
+                        Placements.colourMask(id, colour) == Placements.colourMask(canonical, colour));
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.solver.Engine;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class SolutionCacheTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    @Test
+    public void hitsAndMisses() {
+        SolutionCache cache = new SolutionCache(64, 4);
+        for (int rep = 0; rep < 3; rep++) {
+            for (int i = 0; i < 10; i++) {
+                String out = cache.getSolution(SOLUTIONS[i].objective);
+                assertTrue("Expected " + SOLUTIONS[i].placement + " but got " + out,
+                        out.equals(FocusGame.getSolution(SOLUTIONS[i].objective)));
+            }
+        }
+        assertTrue("Expected 10 misses but got " + cache.getMisses(), cache.getMisses() == 10);
+        assertTrue("Expected 20 hits but got " + cache.getHits(), cache.getHits() == 20);
+        assertTrue("Expected no evictions but got " + cache.getEvictions(), cache.getEvictions() == 0);
+    }
+
+    @Test
+    public void bounded() {
+        SolutionCache cache = new SolutionCache(8, 1);
+        for (Solution solution : SOLUTIONS) {
+            cache.getSolution(solution.objective);
+        }
+        assertTrue("Expected 8 entries but got " + cache.size(), cache.size() == 8);
+        assertTrue("Expected " + (SOLUTIONS.length - 8) + " evictions but got " + cache.getEvictions(),
+                cache.getEvictions() == SOLUTIONS.length - 8);
+    }
+
+    @Test
+    public void boundedAcrossSegments() {
+        for (int capacity : new int[] { 1, 3, 10, 17, 64 }) {
+            SolutionCache cache = new SolutionCache(capacity, 16);
+            for (Solution solution : SOLUTIONS) {
+                cache.getSolution(solution.objective);
+            }
+            assertTrue("Capacity " + capacity + " in 16 segments held " + cache.size() + " entries",
+                    cache.size() <= capacity && cache.size() + cache.getEvictions() == SOLUTIONS.length);
+        }
+    }
+
+    @Test
+    public void prePlaced() {
+        SolutionCache cache = new SolutionCache();
+        for (Solution solution : SOLUTIONS) {
+            String placed = solution.placement.substring(0, 12);
+            String out = cache.getSolution(placed, solution.objective);
+            assertTrue("Expected one of " + solution.placements + " from " + placed + " but got " + out,
+                    solution.placements.contains(out));
+        }
+        assertTrue(cache.getSolution("a000a000", SOLUTIONS[0].objective).isEmpty());
+    }
+
+    /* Pieces whose colours in the window contradict the challenge */
+    private static final String[][] CONTRADICTING = {
+            { "GRRRRRRRR", "j010" }, { "WRWRRRRRR", "b102" }, { "RGRGGRRRR", "c202" }
+    };
+
+    @Test
+    public void contradictingPrePlaced() {
+        SolutionCache cache = new SolutionCache();
+        for (String[] c : CONTRADICTING) {
+            String out = cache.getSolution(c[1], c[0]);
+            assertTrue("Expected no solution for " + c[0] + " from " + c[1] + " but got " + out, out.isEmpty());
+
+            for (Engine engine : Engine.values()) {
+                BoardState board = new BoardState(c[1]);
+                assertTrue(engine + " completed " + c[1] + " under " + c[0],
+                        !engine.solver().solve(CompiledChallenge.of(c[0]), board) && board.getDepth() == 1);
+                assertTrue(engine + " enumerated completions of " + c[1] + " under " + c[0],
+                        engine.solver().enumerate(CompiledChallenge.of(c[0]), board, 10, null) == 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.solver.Engine;
+import arlob.iqfocus.solver.SolutionTable;
+
+import static org.junit.Assert.assertTrue;
+
+public class SolutionTableTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    @Test
+    public void countsMatchSearch() {
+        SolutionTable table = SolutionTable.getInstance();
+        for (int code = 0; code < (1 << 18); code += 97) {
+            CompiledChallenge challenge = CompiledChallenge.of(code);
+            long expected = Engine.BITSET.solver().enumerate(challenge, new BoardState(), Long.MAX_VALUE, null);
+            assertTrue("Expected " + expected + " solutions for objective " + challenge + " but got " +
+                    table.count(challenge), table.count(challenge) == expected);
+        }
+    }
+
+    @Test
+    public void solutionsShowChallenge() {
+        SolutionTable table = SolutionTable.getInstance();
+        for (int code = 0; code < (1 << 18); code += 31) {
+            CompiledChallenge challenge = CompiledChallenge.of(code);
+            for (int k = 0; k < table.count(challenge); k++) {
+                BoardState board = new BoardState();
+                table.place(challenge, k, board);
+                assertTrue("Solution " + board + " does not show objective " + challenge,
+                        CompiledChallenge.shownBy(board) == challenge);
+                assertTrue("Solution " + board + " is not valid", FocusGame.isPlacementStringValid(board.toString()));
+            }
+        }
+    }
+}
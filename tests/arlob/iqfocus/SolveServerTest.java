@@ -0,0 +1,97 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class SolveServerTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    private static HttpResponse<String> get(HttpClient client, SolveServer server, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void routes() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+
+        try (SolveServer server = new SolveServer(new InetSocketAddress("localhost", 0))) {
+            server.start();
+
+            for (int i = 0; i < 10; i++) {
+                Solution solution = SOLUTIONS[i];
+                String out = get(client, server, "/solve?challenge=" + solution.objective).body();
+                assertTrue("Expected one of " + solution.placements + " for " + solution.objective + " but got " + out,
+                        solution.placements.contains(out));
+            }
+
+            String placement = SOLUTIONS[0].placement;
+            String out = get(client, server, "/solve?challenge=" + SOLUTIONS[0].objective + "&placement=" + placement.substring(0, 8)).body();
+            assertTrue("Expected " + placement + " but got " + out, out.equals(placement));
+
+            out = get(client, server, "/validate?placement=" + placement).body();
+            assertTrue("Expected " + placement + " to be valid but got " + out, out.equals("true"));
+            out = get(client, server, "/validate?placement=a000a100").body();
+            assertTrue("Expected a000a100 to be invalid but got " + out, out.equals("false"));
+
+            out = get(client, server, "/viable?placement=a000c113d302e323f400g420h522i613j701&challenge=RRRBWBBRB&col=0&row=1").body();
+            assertTrue("Expected b013 but got " + out, out.equals("b013"));
+
+            int status = get(client, server, "/solve?challenge=RRR").statusCode();
+            assertTrue("Expected 400 for a malformed challenge but got " + status, status == 400);
+            status = get(client, server, "/viable?challenge=RRRBWBBRB&col=x&row=1").statusCode();
+            assertTrue("Expected 400 for a malformed column but got " + status, status == 400);
+        }
+    }
+
+    @Test
+    public void coalesces() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        CountDownLatch release = new CountDownLatch(1);
+        int clients = 20;
+
+        try (SolveServer server = new SolveServer(new InetSocketAddress("localhost", 0), (placement, challenge) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return FocusGame.getSolution(placement, challenge);
+        })) {
+            server.start();
+
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            URI uri = URI.create("http://localhost:" + server.getPort() + "/solve?challenge=" + SOLUTIONS[0].objective);
+            for (int i = 0; i < clients; i++) {
+                responses.add(client.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString()));
+            }
+
+            Thread.sleep(500);
+            release.countDown();
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                String out = response.get().body();
+                assertTrue("Expected " + SOLUTIONS[0].placement + " but got " + out, out.equals(SOLUTIONS[0].placement));
+            }
+
+            assertTrue("Expected fewer computations than requests but got " + server.getComputations(),
+                    server.getComputations() < clients);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package arlob.iqfocus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.solver.BitsetSolver;
+import arlob.iqfocus.solver.SolverStats;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class SolverStatsTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    @Test
+    public void countsSearches() {
+        BitsetSolver solver = new BitsetSolver();
+        SolverStats stats = new SolverStats();
+        long nodes = 0, solutions = 0;
+
+        solver.setStats(stats);
+        for (Solution solution : SOLUTIONS) {
+            solutions += solver.enumerate(CompiledChallenge.of(solution.objective), new BoardState(), Long.MAX_VALUE, null);
+            nodes += solver.getNodes();
+        }
+
+        assertTrue("Expected " + SOLUTIONS.length + " searches in " + stats, stats.getSearches() == SOLUTIONS.length);
+        assertTrue("Expected " + solutions + " solutions in " + stats, stats.getSolutions() == solutions);
+        assertTrue("Expected " + nodes + " nodes in " + stats, stats.getNodes() == nodes);
+        assertTrue("Expected every candidate to be taken back in " + stats, stats.getBacktracks() == stats.getCandidates());
+        assertTrue("Expected wall time in " + stats, stats.getNanos() > 0);
+
+        long depthNodes = 0;
+        for (int d = 0; d <= BoardState.MAX_DEPTH; d++) {
+            depthNodes += stats.getNodes(d);
+            assertTrue("Expected at least one candidate per node at depth " + d + " in " + stats,
+                    stats.getNodes(d) == 0 || stats.getBranchingFactor(d) >= 1);
+        }
+        assertTrue("Expected per-depth nodes to sum to " + nodes + " in " + stats, depthNodes == nodes);
+
+        stats.reset();
+        solver.setStats(null);
+        solver.solve(CompiledChallenge.of(SOLUTIONS[0].objective), new BoardState());
+        assertTrue("Expected no counting once detached but got " + stats, stats.getSearches() == 0 && stats.getNodes() == 0);
+    }
+}
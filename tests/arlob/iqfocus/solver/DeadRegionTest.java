@@ -0,0 +1,85 @@
+package arlob.iqfocus.solver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.Solution;
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class DeadRegionTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    private static final int ALL_SHAPES = (1 << 10) - 1;
+
+    @Test
+    public void isolatedPocket() {
+        /* A single free corner cell, or a pocket of two, is smaller than any piece */
+        long corner = 1L;
+        long pair = 1L | 1L << 1;
+
+        for (int shapes = 1; shapes <= ALL_SHAPES; shapes++) {
+            assertTrue("One free cell not rejected with shapes " + Integer.toBinaryString(shapes),
+                    BitsetSolver.hasDeadRegion(BitsetSolver.PLAYABLE & ~corner, shapes));
+            assertTrue("Two free cells not rejected with shapes " + Integer.toBinaryString(shapes),
+                    BitsetSolver.hasDeadRegion(BitsetSolver.PLAYABLE & ~pair, shapes));
+        }
+
+        /* The same pair walled off by three cells, with the rest of the board free */
+        long wall = 1L << 2 | 1L << 9 | 1L << 10;
+        assertTrue("Walled off pocket not rejected on an open board",
+                BitsetSolver.hasDeadRegion(wall, ALL_SHAPES));
+    }
+
+    @Test
+    public void fillableRegions() {
+        for (Solution solution : SOLUTIONS) {
+            Arrangement full = Arrangement.of(solution.placement);
+
+            for (int x = 0; x < 10; x++) {
+                for (int y = x; y < 10; y++) {
+                    Arrangement rest = full.without(x).without(y);
+                    int unplaced = 1 << x | 1 << y;
+
+                    assertTrue("Rejected " + rest + " which " + solution.placement + " completes",
+                            !BitsetSolver.hasDeadRegion(rest.getOccupied(), unplaced));
+                }
+            }
+        }
+
+        assertTrue("Rejected the empty board", !BitsetSolver.hasDeadRegion(0L, ALL_SHAPES));
+        assertTrue("Rejected the full board", !BitsetSolver.hasDeadRegion(BitsetSolver.PLAYABLE, 0));
+    }
+
+    @Test
+    public void pruningSavesNodes() {
+        BitsetSolver pruned = new BitsetSolver();
+        BitsetSolver unpruned = new BitsetSolver();
+        SolverStats with = new SolverStats();
+        SolverStats without = new SolverStats();
+
+        pruned.setStats(with);
+        unpruned.setStats(without);
+        unpruned.pruneDeadRegions = false;
+
+        for (Solution solution : SOLUTIONS) {
+            CompiledChallenge challenge = CompiledChallenge.of(solution.objective);
+            long a = pruned.enumerate(challenge, new BoardState(), Long.MAX_VALUE, null);
+            long b = unpruned.enumerate(challenge, new BoardState(), Long.MAX_VALUE, null);
+
+            assertTrue("Pruning changed the solutions of " + solution.objective + " from " + b + " to " + a, a == b);
+        }
+
+        assertTrue("Expected dead regions to be pruned but got " + with,
+                with.getPrunes(SolverStats.Prune.DEAD_REGION) > 0
+                        && without.getPrunes(SolverStats.Prune.DEAD_REGION) == 0);
+        assertTrue("Expected fewer nodes with pruning, " + with.getNodes() + " vs " + without.getNodes(),
+                with.getNodes() < without.getNodes());
+    }
+}
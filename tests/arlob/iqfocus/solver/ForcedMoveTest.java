@@ -0,0 +1,75 @@
+package arlob.iqfocus.solver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import arlob.iqfocus.Solution;
+import arlob.iqfocus.classes.Arrangement;
+import arlob.iqfocus.classes.BoardState;
+import arlob.iqfocus.classes.CompiledChallenge;
+import arlob.iqfocus.classes.Placements;
+
+import static arlob.iqfocus.Solution.SOLUTIONS;
+import static org.junit.Assert.assertTrue;
+
+public class ForcedMoveTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(12000);
+
+    /* After placing a forced piece, a cell is left that nothing covers */
+    private static final String CONTRADICTION = "a510b013c113e323f400g420h522j701";
+
+    @Test
+    public void onlyPlacementIsForced() {
+        for (Solution solution : SOLUTIONS) {
+            CompiledChallenge challenge = CompiledChallenge.of(solution.objective);
+            Arrangement full = Arrangement.of(solution.placement);
+
+            for (int shape = 0; shape < 10; shape++) {
+                BoardState board = new BoardState();
+                full.without(shape).placeOn(board);
+
+                long[] rows = new long[BitsetSolver.WORDS];
+                BitsetSolver.initialRows(challenge, board, rows);
+                int cell = BitsetSolver.selectCell(rows, board.getOccupied());
+                int forced = BitsetSolver.forcedRow(rows, cell, board.getUnplaced());
+
+                assertTrue("Expected " + Placements.toString(full.get(shape)) + " to be forced on " + board
+                                + " but got " + forced,
+                        Placements.canonical(forced) == Placements.canonical(full.get(shape)));
+
+                BitsetSolver solver = new BitsetSolver();
+                SolverStats stats = new SolverStats();
+                solver.setStats(stats);
+
+                assertTrue("No completion of " + board, solver.solve(challenge, board) && board.getDepth() == 10);
+                assertTrue("Expected one forced placement and no branching but got " + stats,
+                        stats.getForced() == 1 && stats.getNodes() == 0 && solver.getNodes() == 0
+                                && stats.getBacktracks() == 0);
+            }
+        }
+    }
+
+    @Test
+    public void contradictionBacktracks() {
+        BoardState board = new BoardState(CONTRADICTION);
+        long occupied = board.getOccupied();
+        BitsetSolver solver = new BitsetSolver();
+        SolverStats stats = new SolverStats();
+        solver.setStats(stats);
+
+        assertTrue("Completed " + CONTRADICTION, !solver.solve(CompiledChallenge.UNCONSTRAINED, board));
+        assertTrue("Expected a forced placement to end in a contradiction without branching but got " + stats,
+                stats.getForced() >= 1 && stats.getNodes() == 0 && stats.getSolutions() == 0
+                        && stats.getPrunes(SolverStats.Prune.EMPTY_CELL) + stats.getPrunes(SolverStats.Prune.DEAD_REGION)
+                        + stats.getPrunes(SolverStats.Prune.DEAD_SHAPE) == 1);
+        assertTrue("Forced placements were left on the board: " + board,
+                board.toString().equals(CONTRADICTION) && board.getOccupied() == occupied);
+
+        /* The solver is left clean for the next search */
+        BoardState next = new BoardState(SOLUTIONS[0].placement.substring(0, 36));
+        assertTrue("No completion after the contradiction",
+                solver.solve(CompiledChallenge.of(SOLUTIONS[0].objective), next) && next.getDepth() == 10);
+    }
+}